@@ -0,0 +1,72 @@
+package org.mengsor.web_local_api.component;
+
+import org.mengsor.web_local_api.model.response.FileBody;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Resolves the bodyFile of an API config. Paths are relative to skyvva.home and may not point outside it,
+ * neither with ".." nor through a symbolic link.
+ */
+@Component
+public class BodyFileResolver {
+
+    private final Path home;
+
+    public BodyFileResolver(@Value("${skyvva.home}") String home) {
+        this.home = Path.of(home).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resolves the path and its content type without touching the file system, so a stub whose file
+     * is missing still compiles and fails only when it is called.
+     *
+     * @param bodyFile the configured path, relative to skyvva.home
+     * @throws IllegalArgumentException if the path is invalid or outside skyvva.home
+     */
+    public FileBody resolve(String bodyFile) {
+        Path path;
+        try {
+            path = home.resolve(bodyFile.trim()).normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid body file path: " + bodyFile, e);
+        }
+        if (!path.startsWith(home) || path.equals(home)) {
+            throw new IllegalArgumentException("Body file must be inside " + home + ": " + bodyFile);
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new FileBody(path, mediaType.toString());
+    }
+
+    /**
+     * Resolves the path and checks that it is a readable regular file that really lives under skyvva.home.
+     *
+     * @param bodyFile the configured path, relative to skyvva.home
+     * @throws IllegalArgumentException if the file is missing, unreadable or outside skyvva.home
+     */
+    public FileBody requireReadable(String bodyFile) {
+        FileBody file = resolve(bodyFile);
+        if (!Files.isRegularFile(file.path()) || !Files.isReadable(file.path())) {
+            throw new IllegalArgumentException("Body file not found or not readable: " + file.path());
+        }
+        try {
+            if (!file.path().toRealPath().startsWith(home.toRealPath())) {
+                throw new IllegalArgumentException("Body file must be inside " + home + ": " + bodyFile);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Body file cannot be resolved: " + file.path(), e);
+        }
+        return file;
+    }
+}
@@ -1,6 +1,7 @@
 package org.mengsor.web_local_api.component;
 
-import org.mengsor.web_local_api.model.SettingCache;
+import org.mengsor.web_local_api.model.SettingSnapshot;
+import org.mengsor.web_local_api.model.enums.SecurityMode;
 import org.mengsor.web_local_api.services.SettingCacheService;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -20,28 +21,35 @@ import java.util.Collections;
 public class DynamicAuthenticationProvider implements AuthenticationProvider {
 
     private final SettingCacheService cacheService;
+    private final VerifiedCredentialCache credentialCache;
 
-    public DynamicAuthenticationProvider(SettingCacheService cacheService) {
+    public DynamicAuthenticationProvider(SettingCacheService cacheService, VerifiedCredentialCache credentialCache) {
         this.cacheService = cacheService;
+        this.credentialCache = credentialCache;
     }
 
     @Override
     public Authentication authenticate(Authentication authentication)
             throws AuthenticationException {
 
-        SettingCache cache = cacheService.loadDecrypted();
+        SettingSnapshot settings = cacheService.snapshot();
 
-        if (cache.getSecurityMode() != null && cache.getSecurityMode().toString().equals("BASIC")) {
+        if (settings.securityMode() == SecurityMode.BASIC) {
             String username = authentication.getName();
             String password = authentication.getCredentials().toString();
 
-            if (username.equals(cache.getUsername()) &&
-                    password.equals(cache.getPassword())) {
+            return credentialCache.verify("basic", username, password, () -> {
+                // read again: the cache stamps the result with the version current at this point
+                SettingSnapshot current = cacheService.snapshot();
+                if (username.equals(current.username()) &&
+                        password.equals(current.password())) {
 
-                return new UsernamePasswordAuthenticationToken(
-                        username, password, Collections.singletonList(() -> "ROLE_USER"));
-            }
-            throw new BadCredentialsException("Invalid username or password");
+                    // no credentials in the result, it may be kept by the credential cache
+                    return new UsernamePasswordAuthenticationToken(
+                            username, null, Collections.singletonList(() -> "ROLE_USER"));
+                }
+                throw new BadCredentialsException("Invalid username or password");
+            });
         }
 
         // NONE mode → allow any request without credentials
@@ -1,6 +1,5 @@
 package org.mengsor.web_local_api.component;
 
-import org.mengsor.web_local_api.model.SettingCache;
 import org.mengsor.web_local_api.model.enums.SecurityMode;
 import org.mengsor.web_local_api.services.SettingCacheService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -33,8 +32,7 @@ public class DynamicAuthorizationManager
             Supplier<Authentication> authentication,
             RequestAuthorizationContext context) {
 
-        SettingCache cache = cacheService.loadDecrypted();
-        SecurityMode mode = cache.getSecurityMode() != null ? cache.getSecurityMode() : SecurityMode.NONE;
+        SecurityMode mode = cacheService.snapshot().securityMode();
 
         Authentication auth = authentication.get();
 
@@ -0,0 +1,164 @@
+package org.mengsor.web_local_api.component;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.model.response.FileBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Writes a file-backed stub body without loading it into the heap. When the connector supports it, the
+ * file is handed to Tomcat's sendfile so the kernel copies it to the socket; otherwise it is streamed with
+ * {@link FileChannel#transferTo}. A single byte range ({@code Range: bytes=...}) is honoured for 200 stubs.
+ * Delayed or throttled file responses are written by the ResponseScheduler from the prepared range instead.
+ */
+@Slf4j
+@Component
+public class FileBodyWriter {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public static final long[] UNSATISFIABLE = new long[0];
+
+    /**
+     * Sets status and headers for the file, answering Range requests.
+     *
+     * @param request the current request, used for the Range header
+     * @param response the servlet response, not committed yet
+     * @param file the file to serve
+     * @param status the stub status code
+     * @return the bytes to send, or null when the response was already completed (missing file, bad range)
+     */
+    public ByteRange prepare(HttpServletRequest request, HttpServletResponse response,
+                             FileBody file, int status) throws IOException {
+        long length;
+        try {
+            length = Files.size(file.path());
+        } catch (NoSuchFileException e) {
+            log.error("Body file not found: {}", file.path());
+            writeText(response, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Body file not found");
+            return null;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String rangeHeader = status == HttpStatus.OK.value() ? request.getHeader(HttpHeaders.RANGE) : null;
+        if (rangeHeader != null) {
+            long[] range = parseRange(rangeHeader, length);
+            if (range == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                writeText(response, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value(), "Range not satisfiable");
+                return null;
+            }
+            if (range != null) {
+                start = range[0];
+                end = range[1];
+                status = HttpStatus.PARTIAL_CONTENT.value();
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setStatus(status);
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(count);
+        return new ByteRange(start, count);
+    }
+
+    /**
+     * Sends the prepared range right away, through sendfile when available.
+     */
+    public void transfer(HttpServletRequest request, HttpServletResponse response,
+                         FileBody file, ByteRange range) throws IOException {
+        if (range.count() == 0) return;
+
+        // sendfile is only picked up when the container thread finishes the request
+        if (!request.isAsyncStarted() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.start() + range.count());
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.start();
+            long remaining = range.count();
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) break; // file shrank underneath us
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    /**
+     * Parses a single byte range. Multiple ranges and malformed headers are ignored, which means the whole
+     * file is sent, as RFC 9110 allows.
+     *
+     * @return {start, end} inclusive, null to send the whole file, or {@link #UNSATISFIABLE}
+     */
+    public static long[] parseRange(String header, long length) {
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6)) return null;
+        value = value.substring(6).trim();
+        if (value.indexOf(',') >= 0) return null;
+
+        int dash = value.indexOf('-');
+        if (dash < 0) return null;
+        String first = value.substring(0, dash).trim();
+        String last = value.substring(dash + 1).trim();
+
+        try {
+            if (first.isEmpty()) {
+                // suffix range: the last N bytes
+                if (last.isEmpty()) return null;
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) return UNSATISFIABLE;
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            if (start >= length) return UNSATISFIABLE;
+            long end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+            if (start < 0 || end < start) return null;
+            return new long[]{start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void writeText(HttpServletResponse response, int status, String message) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        response.setStatus(status);
+        response.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8).toString());
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * @param start the first byte to send
+     * @param count the number of bytes to send
+     */
+    public record ByteRange(long start, long count) {
+    }
+}
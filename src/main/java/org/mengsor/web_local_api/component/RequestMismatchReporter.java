@@ -2,30 +2,28 @@ package org.mengsor.web_local_api.component;
 
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import jakarta.servlet.http.HttpServletRequest;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.component.diff.LineDiff;
+import org.mengsor.web_local_api.component.matcher.BodyMatchers;
+import org.mengsor.web_local_api.component.routing.ApiRouteTable;
 import org.mengsor.web_local_api.model.ApiConfig;
+import org.mengsor.web_local_api.model.RequestLog;
 import org.mengsor.web_local_api.model.enums.BodyType;
-import org.mengsor.web_local_api.services.RequestLogService;
+import org.mengsor.web_local_api.model.request.StubRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.StringReader;
-import java.io.StringWriter;
+import java.time.Duration;
 import java.util.*;
 
 /**
@@ -42,24 +40,51 @@ import java.util.*;
 public class RequestMismatchReporter {
 
     private static final int COL_WIDTH = 58;
+    private static final int DIFF_CONTEXT = 3;
+    private static final int MAX_LINE_WIDTH = 200;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final RequestLogService requestLogService;
+    private final BodyMatchers bodyMatchers;
+    private final XmlSupport xmlSupport;
+
+    @Value("${mismatch.report.max-body-size:1MB}")
+    private DataSize maxBodySize;
+    @Value("${mismatch.report.diff.max-edits:2000}")
+    private int diffMaxEdits;
+    @Value("${mismatch.report.diff.timeout:200ms}")
+    private Duration diffTimeout;
+    @Value("${mismatch.report.max-lines:500}")
+    private int maxReportLines;
 
     /**
-     * Builds a non-match report for the given HTTP request by comparing it against the provided API configuration,
-     * including differences in method, path, headers, and body.
+     * Returns the non-match report of an unmatched request log, rendering it on first use. Unmatched requests
+     * only record the report inputs, so a flood of them costs nothing until someone opens one.
      *
-     * @param request the HttpServletRequest representing the incoming request
-     * @param config the ApiConfig containing the expected configuration for the request
-     * @param actualBody the actual body of the request as a String
-     * @param headerDiffs a list of String representing the differences between expected and actual headers
-     * @return a formatted String containing a detailed report of mismatches between the request and the configuration
+     * @param requestLog the log to report on
+     * @return the report, or null if the log has no closest stub to compare against
      */
-    public String buildNonMatchReport(HttpServletRequest request,
-                                       ApiConfig config,
-                                       String actualBody, List<String> headerDiffs) {
+    public String nonMatchReport(RequestLog requestLog) {
+        String report = requestLog.getNonMatchReport();
+        if (report == null && requestLog.getStubUrl() != null) {
+            // two viewers may render at the same time; both produce the same text
+            report = buildNonMatchReport(requestLog);
+            requestLog.setNonMatchReport(report);
+        }
+        return report;
+    }
+
+    /**
+     * Builds a non-match report for the given request log by comparing the request it recorded against the
+     * closest stub, including differences in method, path, headers, and body.
+     *
+     * @param requestLog the unmatched request log, with the stub's method, path and expected body
+     * @return a formatted String containing a detailed report of mismatches between the request and the stub
+     */
+    private String buildNonMatchReport(RequestLog requestLog) {
 
-        log.info("start buildNonMatchReport request:{}",request.getRequestURI());
+        log.debug("start buildNonMatchReport request:{}", requestLog.getUrl());
+        String actualBody = requestLog.getRequestBody();
+        String expectedBody = requestLog.getExpectedRequestBody();
+        List<String> headerDiffs = requestLog.getHeaderDiffs() != null ? requestLog.getHeaderDiffs() : List.of();
         StringBuilder sb = new StringBuilder();
 
         sb.append(String.format("%70s","Request was not matched\n"));
@@ -72,11 +97,11 @@ public class RequestMismatchReporter {
                 "-------------------------------------------------------\n");
 
         /* ---------- METHOD ---------- */
-        sb.append(String.format("| %-55s | %-55s |\n", config.getMethod(), request.getMethod()));
+        sb.append(String.format("| %-55s | %-55s |\n", requestLog.getStubMethod(), requestLog.getMethod()));
 
         /* ---------- PATH ---------- */
-        String actualPath = request.getRequestURI().replaceFirst(".*/skyvva.api/", "");
-        sb.append(String.format("| %-55s | %-55s |\n", "[path] " + config.getUrl(), actualPath));
+        String actualPath = requestLog.getUrl() != null ? ApiRouteTable.extractApiPath(requestLog.getUrl()) : null;
+        sb.append(String.format("| %-55s | %-55s |\n", "[path] " + requestLog.getStubUrl(), actualPath));
 
         /* ---------- HEADERS ---------- */
         for (String diff : headerDiffs) {
@@ -87,54 +112,57 @@ public class RequestMismatchReporter {
                 "---------------------------------------------------------------\n");
 
         /* ---------- BODY ---------- */
-        if (config.getRequestBody() != null && !config.getRequestBody().isBlank() && !bodyEquals(actualBody, config.getRequestBody())) {
+        if (expectedBody != null && !expectedBody.isBlank() && !bodyEquals(actualBody, expectedBody)) {
             sb.append("\nBody does not match\n");
             sb.append("-------------------------------------------------------" +
                     "----------------------------------------------------------------\n");
-            if (actualBody == null || actualBody.isBlank()) {
-                BodyType type = detectBodyType(config.getRequestBody());
+            if (expectedBody.length() > maxBodySize.toBytes()
+                    || actualBody != null && actualBody.length() > maxBodySize.toBytes()) {
+                appendLargeBodyMismatch(sb, expectedBody, actualBody);
+            } else if (actualBody == null || actualBody.isBlank()) {
+                BodyType type = detectBodyType(expectedBody);
 
                 if (BodyType.JSON.equals(type)) {
                     appendJsonDiffLikeXml(sb,
-                            config.getRequestBody(),
+                            expectedBody,
                             actualBody
                     );
                 } else if (BodyType.XML.equals(type)) {
                     appendXmlDiff(
                             sb,
-                            config.getRequestBody(),
+                            expectedBody,
                             actualBody
                     );
                 }
-            } else if (!bodyEquals(config.getRequestBody(), actualBody)) {
-                BodyType type = detectBodyType(config.getRequestBody());
+            } else if (!bodyEquals(expectedBody, actualBody)) {
+                BodyType type = detectBodyType(expectedBody);
                 BodyType actualType = detectBodyType(actualBody);
 
                 if (type.equals(actualType)) {
                     if (type.equals(BodyType.JSON)) {
                         appendJsonDiffLikeXml(
                                 sb,
-                                config.getRequestBody(),
+                                expectedBody,
                                 actualBody
                         );
                     } else if (type.equals(BodyType.XML)) {
                         appendXmlDiff(
                                 sb,
-                                config.getRequestBody(),
+                                expectedBody,
                                 actualBody
                         );
                     }
                 }else {
                     log.warn("buildNonMatchReport Type different");
                     String prettyActualBody = BodyType.JSON.equals(actualType) ? prettyJson(actualBody) : prettyXml(actualBody);
-                    String prettyExpectedBody = BodyType.JSON.equals(type) ? prettyJson(config.getRequestBody()) : prettyXml(config.getRequestBody());
+                    String prettyExpectedBody = BodyType.JSON.equals(type) ? prettyJson(expectedBody) : prettyXml(expectedBody);
                     appendRawSideBySide(sb,prettyExpectedBody,prettyActualBody,type,actualType);
                 }
 
             }
         }
 
-        log.info("buildNonMatchReport successfully sb:{}",sb.toString());
+        log.debug("buildNonMatchReport done request:{}", requestLog.getUrl());
         return sb.toString();
     }
 
@@ -143,19 +171,19 @@ public class RequestMismatchReporter {
      * and identifies differences. Differences could include missing headers or headers
      * with mismatched values.
      *
-     * @param request the HttpServletRequest containing the actual headers to compare
+     * @param request the StubRequest containing the actual headers to compare
      * @param expectedHeaders a list of expected header definitions, each represented by an instance
      *                        of a compatible type (e.g., ApiConfig.Header)
      * @return a list of strings describing the differences between the actual and expected headers.
      *         Each string provides detailed information about the discrepancy, such as whether a
      *         header is missing or contains a mismatched value.
      */
-    public List<String> compareHeaders(HttpServletRequest request,
+    public List<String> compareHeaders(StubRequest request,
                                         List<?> expectedHeaders) {
 
-        log.info("start compareHeaders request:{}",request.getRequestURI());
+        log.info("start compareHeaders request:{}",request.requestUri());
         List<String> diffs = new ArrayList<>();
-        Map<String, String> header = extractHeaders(request);
+        Map<String, String> header = request.headers();
 
         if (expectedHeaders == null || expectedHeaders.isEmpty()) {
             return diffs;
@@ -200,61 +228,19 @@ public class RequestMismatchReporter {
     }
 
     /**
+     * Appends a line diff of the expected and actual JSON, both pretty-printed with their keys sorted so
+     * member order does not show up as a difference.
      *
-     * @param request
-     * @return
-     */
-    private Map<String, String> extractHeaders(HttpServletRequest request) {
-
-        Map<String, String> headers = new LinkedHashMap<>();
-
-        Enumeration<String> headerNames = request.getHeaderNames();
-        if (headerNames == null) {
-            return headers;
-        }
-
-        while (headerNames.hasMoreElements()) {
-            String name = headerNames.nextElement();
-            headers.put(name, request.getHeader(name));
-        }
-
-        return headers;
-    }
-
-    /**
-     *
-     * @param sb
-     * @param expectedJson
-     * @param actualJson
+     * @param sb the report being built
+     * @param expectedJson the stub's body
+     * @param actualJson the request's body, may be null
      */
     private void appendJsonDiffLikeXml(StringBuilder sb,
                                        String expectedJson,
                                        String actualJson) {
 
         sb.append("[equalToJson]\n");
-
-        List<String> expected = normalizeJsonLines(expectedJson);
-        List<String> actual = normalizeJsonLines(actualJson == null ? "" : actualJson);
-
-        int max = Math.max(expected.size(), actual.size());
-        int index = 1;
-        for (int i = 0; i < max; i++) {
-            String exp = i < expected.size() ? expected.get(i) : "";
-            String act = i < actual.size() ? actual.get(i) : "";
-
-            boolean mismatch = !exp.trim().equals(act.trim());
-
-            sb.append(String.format(
-                    "%-58s | %-58s",
-                    exp, act
-            ));
-
-            if (mismatch && index == max) {
-                sb.append("   <<<<< Body does not match");
-            }
-            index++;
-            sb.append("\n");
-        }
+        appendLineDiff(sb, normalizeJsonLines(expectedJson), normalizeJsonLines(actualJson == null ? "" : actualJson));
     }
 
     /**
@@ -264,17 +250,16 @@ public class RequestMismatchReporter {
      */
     private List<String> normalizeJsonLines(String json) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode node = mapper.readTree(json);
+            Object value = objectMapper.readValue(json, Object.class);
 
-            ObjectWriter writer = mapper.writer(
+            ObjectWriter writer = objectMapper.writer(
                     new DefaultPrettyPrinter()
                             .withObjectIndenter(
                                     new DefaultIndenter("  ", "\n")
                             )
-            );
+            ).with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
 
-            String pretty = writer.writeValueAsString(node);
+            String pretty = writer.writeValueAsString(value);
             return Arrays.asList(pretty.split("\n"));
 
         } catch (Exception e) {
@@ -283,39 +268,89 @@ public class RequestMismatchReporter {
     }
 
     /**
+     * Appends a line diff of the expected and actual XML, both normalized and indented the same way.
      *
-     * @param sb
-     * @param expectedXml
-     * @param actualXml
+     * @param sb the report being built
+     * @param expectedXml the stub's body
+     * @param actualXml the request's body, may be null
      */
     private void appendXmlDiff(StringBuilder sb,
                                String expectedXml,
                                String actualXml) {
 
         sb.append("[equalToXml]\n");
+        appendLineDiff(sb, normalizeXmlLines(expectedXml == null ? "" : expectedXml),
+                normalizeXmlLines(actualXml == null ? "" : actualXml));
+    }
 
-        List<String> expected = normalizeXmlLines(expectedXml == null ? "" : expectedXml);
-        List<String> actual = normalizeXmlLines(actualXml == null ? "" : actualXml);
-
-        int max = Math.max(expected.size(), actual.size());
-        int index = 1;
-        for (int i = 0; i < max; i++) {
-            String exp = i < expected.size() ? expected.get(i) : "";
-            String act = i < actual.size() ? actual.get(i) : "";
+    /**
+     * Appends the differences as unified-diff hunks with a few lines of context ({@code -} expected only,
+     * {@code +} request only). The diff search and the output are both capped, so a large body costs at
+     * most the configured budget.
+     */
+    private void appendLineDiff(StringBuilder sb, List<String> expected, List<String> actual) {
+        LineDiff.Result diff = LineDiff.diff(expected, actual, diffMaxEdits, diffTimeout.toNanos());
+        if (!diff.complete()) {
+            sb.append("(diff budget exceeded, the differing part is shown as replaced)\n");
+        }
 
-            boolean mismatch = !exp.equals(act);
+        int written = 0;
+        int total = 0;
+        for (LineDiff.Hunk hunk : LineDiff.hunks(diff.runs(), DIFF_CONTEXT)) {
+            total += hunk.runs().stream().mapToInt(LineDiff.Run::length).sum() + 1;
+            if (written >= maxReportLines) continue;
+
+            sb.append("@@ -").append(hunk.oldStart() + 1).append(',').append(hunk.oldCount())
+                    .append(" +").append(hunk.newStart() + 1).append(',').append(hunk.newCount()).append(" @@\n");
+            written++;
+            for (LineDiff.Run run : hunk.runs()) {
+                for (int i = 0; i < run.length() && written < maxReportLines; i++, written++) {
+                    switch (run.op()) {
+                        case EQUAL -> appendDiffLine(sb, ' ', expected.get(run.oldStart() + i));
+                        case DELETE -> appendDiffLine(sb, '-', expected.get(run.oldStart() + i));
+                        case INSERT -> appendDiffLine(sb, '+', actual.get(run.newStart() + i));
+                    }
+                }
+            }
+        }
+        if (total > written) {
+            sb.append("... ").append(total - written).append(" more diff lines not shown\n");
+        }
+        sb.append("<<<<< Body does not match\n");
+    }
 
-            sb.append(String.format(
-                    "%-58s | %-58s",
-                    exp, act
-            ));
+    private static void appendDiffLine(StringBuilder sb, char marker, String line) {
+        sb.append(marker).append(' ');
+        if (line.length() > MAX_LINE_WIDTH) {
+            sb.append(line, 0, MAX_LINE_WIDTH).append("...");
+        } else {
+            sb.append(line);
+        }
+        sb.append('\n');
+    }
 
-            if (mismatch && index == max) {
-                sb.append("   <<<<< Body does not match");
-            }
-            index++;
-            sb.append("\n");
+    /**
+     * Describes a mismatch between bodies too large to diff line by line: their sizes and where they
+     * first differ.
+     */
+    private void appendLargeBodyMismatch(StringBuilder sb, String expected, String actual) {
+        String actualBody = actual == null ? "" : actual;
+        int limit = Math.min(expected.length(), actualBody.length());
+        int offset = 0;
+        while (offset < limit && expected.charAt(offset) == actualBody.charAt(offset)) {
+            offset++;
         }
+        sb.append(String.format("Bodies too large to diff (%d vs %d chars), first difference at char %d%n",
+                expected.length(), actualBody.length(), offset));
+        appendDiffLine(sb, '-', excerpt(expected, offset));
+        appendDiffLine(sb, '+', excerpt(actualBody, offset));
+        sb.append("<<<<< Body does not match\n");
+    }
+
+    private static String excerpt(String body, int offset) {
+        int from = Math.max(0, offset - MAX_LINE_WIDTH / 4);
+        int to = Math.min(body.length(), from + MAX_LINE_WIDTH);
+        return body.substring(from, to).replace('\n', ' ');
     }
 
     /**
@@ -325,29 +360,13 @@ public class RequestMismatchReporter {
      */
     private List<String> normalizeXmlLines(String xml) {
 
-        log.info("normalizeXmlLines xml:{}",xml);
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setIgnoringComments(true);
-            factory.setCoalescing(true);
-            factory.setNamespaceAware(true);
-            factory.setIgnoringElementContentWhitespace(true);
-
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(new InputSource(new StringReader(xml)));
+            Document doc = xmlSupport.parseNormalized(xml);
             doc.normalizeDocument();
 
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty(
-                    "{http://xml.apache.org/xslt}indent-amount", "2"
-            );
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-
-            StringWriter writer = new StringWriter();
-            transformer.transform(new DOMSource(doc), new StreamResult(writer));
+            String serialized = xmlSupport.serialize(new DOMSource(doc), true, false);
 
-            return Arrays.stream(writer.toString().split("\n"))
+            return Arrays.stream(serialized.split("\n"))
                     .map(String::trim)
                     .filter(line -> !line.isBlank())
                     .toList();
@@ -378,7 +397,6 @@ public class RequestMismatchReporter {
                                      BodyType actualType) {
 
 
-        log.info("appendRawSideBySide expected:{}",expected);
         sb.append(String.format("[equalTo%s]%"+(COL_WIDTH - ("[equalTo"+expectedType+"]").length())+"s| " +
                         "[actual%s]\n", expectedType, "", actualType));
 
@@ -393,8 +411,9 @@ public class RequestMismatchReporter {
                 .toList();
 
         int max = Math.max(left.size(), right.size());
+        int shown = Math.min(max, maxReportLines);
 
-        for (int i = 0; i < max; i++) {
+        for (int i = 0; i < shown; i++) {
             String l = i < left.size() ? left.get(i) : "";
             String r = i < right.size() ? right.get(i) : "";
 
@@ -403,6 +422,9 @@ public class RequestMismatchReporter {
                     l, r
             ));
         }
+        if (max > shown) {
+            sb.append("... ").append(max - shown).append(" more lines not shown\n");
+        }
 
         sb.append(String.format(
                 "%" + (COL_WIDTH * 2 + 3) + "s%n",
@@ -411,8 +433,6 @@ public class RequestMismatchReporter {
     }
 
     private String prettyJson(String json) {
-        log.info("prettyJson json:{}",json);
-        log.warn("prettyJson json:{}",json.replaceAll("\"[^\"]*\"", ""));
         try {
             ObjectMapper mapper = new ObjectMapper();
             Object obj = mapper.readValue(json, Object.class);
@@ -424,17 +444,8 @@ public class RequestMismatchReporter {
     }
 
     private String prettyXml(String xml) {
-        log.info("prettyXml xml:{}",xml);
-        log.warn("prettyXml xml:{}",xml.replaceAll("<[^>]+>", ""));
         try {
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-
-            StreamSource source = new StreamSource(new StringReader(xml));
-            StringWriter writer = new StringWriter();
-            transformer.transform(source, new StreamResult(writer));
-            return writer.toString().trim();
+            return xmlSupport.serialize(new StreamSource(new StringReader(xml)), true, false).trim();
         } catch (Exception e) {
             return xml;
         }
@@ -450,91 +461,21 @@ public class RequestMismatchReporter {
         return BodyType.TEXT;
     }
 
+    /**
+     * Compares a body against a template. The request path uses the matcher precompiled in the stub;
+     * this compiles the template on the fly and is only meant for report rendering.
+     *
+     * @param template the expected body
+     * @param requestBody the actual body
+     * @return true if both bodies are equivalent
+     */
     public boolean bodyEquals(String template, String requestBody) {
         if (template == null || requestBody == null) {
             return false;
         }
-
-        String t = template.trim();
-        String a = requestBody.trim();
-
-        try {
-            // ---------- JSON ----------
-            if (t.startsWith("{") && a.startsWith("{")) {
-                JsonNode expected = objectMapper.readTree(t);
-                JsonNode actual = objectMapper.readTree(a);
-                return expected.equals(actual);
-            }
-
-            // ---------- XML ----------
-            if (t.startsWith("<") && a.startsWith("<")) {
-                String tm = t.trim().replaceAll(">\\s+<", "><")  // remove spaces between tags
-                        .replaceAll("\\r|\\n", "")   // remove line breaks
-                        .trim();
-                String am = a.replaceAll(">\\s+<", "><")  // remove spaces between tags
-                        .replaceAll("\\r|\\n", "")   // remove line breaks
-                        .trim();
-                return xmlEquals(tm, am);
-            }
-
-            // ---------- Plain text ----------
-            return t.equals(a);
-
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private boolean xmlEquals(String expectedXml, String actualXml) {
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-            factory.setNamespaceAware(true);
-            factory.setIgnoringElementContentWhitespace(true);
-            factory.setCoalescing(true);
-            factory.setIgnoringComments(true);
-
-            DocumentBuilder builder = factory.newDocumentBuilder();
-
-            Document expectedDoc = builder.parse(
-                    new InputSource(new StringReader(expectedXml))
-            );
-            Document actualDoc = builder.parse(
-                    new InputSource(new StringReader(actualXml))
-            );
-
-            expectedDoc.normalizeDocument();
-            actualDoc.normalizeDocument();
-
-            return expectedDoc.isEqualNode(actualDoc);
-
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    /**
-     *
-     * @param actual
-     * @param template
-     */
-    public void validateFormat(String actual, String template) {
-        log.info("validateFormat actual:{}",actual);
-        if (actual == null || template == null) return;
-
-        BodyType type = detectBodyType(template);
-
-        try {
-            if (BodyType.JSON.equals(type)) {
-                objectMapper.readTree(actual);
-            } else if (BodyType.XML.equals(type)) {
-                DocumentBuilderFactory.newInstance()
-                        .newDocumentBuilder()
-                        .parse(new InputSource(new StringReader(actual)));
-            }
-        } catch (Exception e) {
-            requestLogService.logFailed(null, actual, "Invalid format");
-           return;
+        if (template.isBlank()) {
+            return requestBody.isBlank();
         }
+        return bodyMatchers.compile(template).matches(requestBody);
     }
 }
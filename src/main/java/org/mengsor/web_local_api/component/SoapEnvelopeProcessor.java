@@ -0,0 +1,251 @@
+package org.mengsor.web_local_api.component;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Reads a SOAP envelope in a single StAX pass: collects the header entries, validates the WS-Security
+ * UsernameToken and copies the first element of the Body out as the payload. No DOM is built and no
+ * Transformer is involved.
+ */
+@Slf4j
+@Component
+public class SoapEnvelopeProcessor {
+
+    private static final int ENVELOPE_CHILD_DEPTH = 2;
+
+    private final XMLInputFactory inputFactory;
+    private final XMLOutputFactory outputFactory;
+
+    public SoapEnvelopeProcessor(XmlSupport xmlSupport) {
+        this.inputFactory = xmlSupport.inputFactory();
+        this.outputFactory = xmlSupport.outputFactory();
+    }
+
+    /**
+     * Parses and validates the envelope.
+     *
+     * @param body the raw SOAP request
+     * @return the header entries (local name to trimmed text) and the body payload
+     * @throws RuntimeException if the envelope is malformed, the body is missing or WS-Security fails
+     */
+    public SoapEnvelope read(String body) {
+        try {
+            return parse(body);
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Invalid SOAP envelope: " + e.getMessage(), e);
+        }
+    }
+
+    private SoapEnvelope parse(String body) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(body));
+
+        Map<String, String> headers = new HashMap<>();
+        String payload = null;
+        boolean bodyFound = false;
+
+        int depth = 0;
+        boolean inHeader = false;
+        boolean inBody = false;
+
+        // current header entry (direct child of Header)
+        String entryName = null;
+        StringBuilder entryText = new StringBuilder();
+
+        // WS-Security state
+        int securityDepth = -1;
+        int tokenDepth = -1;
+        String credentialField = null;
+        String username = null;
+        String password = null;
+
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String local = reader.getLocalName();
+
+                    if (depth == ENVELOPE_CHILD_DEPTH && "Header".equals(local)) {
+                        inHeader = true;
+                    } else if (depth == ENVELOPE_CHILD_DEPTH && "Body".equals(local) && !bodyFound) {
+                        inBody = true;
+                        bodyFound = true;
+                    } else if (inHeader && depth == ENVELOPE_CHILD_DEPTH + 1) {
+                        entryName = local;
+                        entryText.setLength(0);
+                        if ("Security".equals(local)) {
+                            securityDepth = depth;
+                        }
+                    } else if (securityDepth > 0 && depth == securityDepth + 1 && "UsernameToken".equals(local)) {
+                        tokenDepth = depth;
+                    } else if (tokenDepth > 0 && depth == tokenDepth + 1
+                            && ("Username".equals(local) || "Password".equals(local))) {
+                        credentialField = local;
+                        if ("Username".equals(local)) username = ""; else password = "";
+                    } else if (inBody && depth == ENVELOPE_CHILD_DEPTH + 1 && payload == null) {
+                        payload = copyElement(reader);
+                        // copyElement consumed the whole element including its END_ELEMENT
+                        depth--;
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE) {
+                    if (entryName != null) {
+                        entryText.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    if (credentialField != null) {
+                        String text = reader.getText();
+                        if ("Username".equals(credentialField)) username += text; else password += text;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (credentialField != null && depth == tokenDepth + 1) {
+                        credentialField = null;
+                    } else if (tokenDepth > 0 && depth == tokenDepth) {
+                        tokenDepth = -1;
+                    } else if (inHeader && depth == ENVELOPE_CHILD_DEPTH + 1) {
+                        headers.put(entryName, entryText.toString().trim());
+                        if (securityDepth > 0) {
+                            validateWSSecurity(username, password);
+                            securityDepth = -1;
+                        }
+                        entryName = null;
+                    } else if (depth == ENVELOPE_CHILD_DEPTH) {
+                        inHeader = false;
+                        inBody = false;
+                    }
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        if (!bodyFound) throw new RuntimeException("SOAP Body not found");
+        if (payload == null) throw new RuntimeException("SOAP Body is empty");
+
+        return new SoapEnvelope(payload, headers);
+    }
+
+    /**
+     * Copies the element at the reader's current START_ELEMENT, including all descendants, to a string.
+     * Namespaces inherited from the envelope are re-declared where the payload uses them.
+     */
+    private String copyElement(XMLStreamReader reader) throws XMLStreamException {
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out);
+        // namespaces declared so far in the copy, one scope per open element
+        Deque<Map<String, String>> scopes = new ArrayDeque<>();
+
+        try {
+            do {
+                switch (reader.getEventType()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        scopes.push(new HashMap<>(4));
+                        writeStartElement(reader, writer, scopes);
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        scopes.pop();
+                        writer.writeEndElement();
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.SPACE ->
+                            writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    case XMLStreamConstants.CDATA -> writer.writeCData(reader.getText());
+                    case XMLStreamConstants.COMMENT -> writer.writeComment(reader.getText());
+                    default -> {
+                        // nothing else can appear inside an element
+                    }
+                }
+                if (scopes.isEmpty()) break;
+                reader.next();
+            } while (true);
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+        return out.toString();
+    }
+
+    private void writeStartElement(XMLStreamReader reader, XMLStreamWriter writer,
+                                   Deque<Map<String, String>> scopes) throws XMLStreamException {
+        String prefix = nullToEmpty(reader.getPrefix());
+        String namespace = nullToEmpty(reader.getNamespaceURI());
+        writer.writeStartElement(prefix, reader.getLocalName(), namespace);
+
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            declare(writer, scopes, nullToEmpty(reader.getNamespacePrefix(i)), nullToEmpty(reader.getNamespaceURI(i)));
+        }
+        if (!namespace.isEmpty() && !namespace.equals(lookup(scopes, prefix))) {
+            declare(writer, scopes, prefix, namespace);
+        }
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attrPrefix = nullToEmpty(reader.getAttributePrefix(i));
+            String attrNamespace = nullToEmpty(reader.getAttributeNamespace(i));
+            if (!attrPrefix.isEmpty() && !XMLConstants.XML_NS_PREFIX.equals(attrPrefix)
+                    && !attrNamespace.equals(lookup(scopes, attrPrefix))) {
+                declare(writer, scopes, attrPrefix, attrNamespace);
+            }
+            writer.writeAttribute(attrPrefix, attrNamespace, reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+    }
+
+    private void declare(XMLStreamWriter writer, Deque<Map<String, String>> scopes,
+                         String prefix, String uri) throws XMLStreamException {
+        if (prefix.isEmpty()) {
+            writer.writeDefaultNamespace(uri);
+        } else {
+            writer.writeNamespace(prefix, uri);
+        }
+        scopes.peek().put(prefix, uri);
+    }
+
+    private static String lookup(Deque<Map<String, String>> scopes, String prefix) {
+        for (Map<String, String> scope : scopes) {
+            String uri = scope.get(prefix);
+            if (uri != null) return uri;
+        }
+        return null;
+    }
+
+    // --- WS-Security validation ---
+    private void validateWSSecurity(String username, String password) {
+        if (username == null || password == null) {
+            throw new RuntimeException("Missing WS-Security Username or Password");
+        }
+
+        // --- Mock credentials (replace with DB/config if needed) ---
+        if (!"admin".equals(username.trim()) || !"admin123".equals(password.trim())) {
+            throw new RuntimeException("Invalid WS-Security credentials");
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Result of reading a SOAP envelope.
+     *
+     * @param payload the first element inside the SOAP Body, serialized
+     * @param headers the SOAP header entries, local name to trimmed text content
+     */
+    public record SoapEnvelope(String payload, Map<String, String> headers) {
+    }
+}
@@ -0,0 +1,117 @@
+package org.mengsor.web_local_api.component;
+
+import org.mengsor.web_local_api.services.SettingCacheService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Remembers credentials that were verified recently, so a repeat caller skips decryption and password
+ * hashing. Entries are keyed by an HMAC of the presented username and password under a random per-process
+ * key, so the map never holds the credentials themselves. An entry expires after the TTL and all entries
+ * are dropped when the settings version changes. Failed attempts are never cached.
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final SettingCacheService settingCacheService;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Mac prototype;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long version;
+
+    public VerifiedCredentialCache(SettingCacheService settingCacheService,
+                                   @Value("${security.credential-cache.ttl:5m}") Duration ttl,
+                                   @Value("${security.credential-cache.max-entries:1000}") int maxEntries) {
+        this.settingCacheService = settingCacheService;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.version = settingCacheService.snapshot().version();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        try {
+            this.prototype = Mac.getInstance(HMAC);
+            prototype.init(new SecretKeySpec(key, HMAC));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns the cached result for these credentials, or runs the verifier and caches what it returns.
+     *
+     * @param realm keeps results of different login paths apart, e.g. "basic" and "password-grant"
+     * @param verifier the full check; throws on bad credentials
+     */
+    public Authentication verify(String realm, String username, String password, Supplier<Authentication> verifier) {
+        if (ttlNanos <= 0 || username == null || password == null) {
+            return verifier.get();
+        }
+
+        long current = settingCacheService.snapshot().version();
+        if (current != version) {
+            entries.clear();
+            version = current;
+        }
+
+        String key = key(realm, username, password);
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == current && now - entry.expiresAt() < 0) {
+            return entry.authentication();
+        }
+
+        Authentication authentication = verifier.get();
+        if (settingCacheService.snapshot().version() != current) {
+            return authentication; // verified against settings that were replaced meanwhile
+        }
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> now - e.expiresAt() >= 0);
+        }
+        if (entries.size() < maxEntries) {
+            entries.put(key, new Entry(current, now + ttlNanos, authentication));
+        }
+        return authentication;
+    }
+
+    private String key(String realm, String username, String password) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC-SHA256 cannot be cloned", e);
+        }
+        // length-prefixed, so no username/password split of the same bytes gives the same key
+        update(mac, realm);
+        update(mac, username);
+        update(mac, password);
+        return Base64.getEncoder().encodeToString(mac.doFinal());
+    }
+
+    private static void update(Mac mac, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        mac.update(bytes);
+    }
+
+    private record Entry(long version, long expiresAt, Authentication authentication) {
+    }
+}
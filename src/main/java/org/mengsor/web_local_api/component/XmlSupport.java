@@ -0,0 +1,175 @@
+package org.mengsor.web_local_api.component;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Shared XML infrastructure. Factories are looked up and configured once with the same hardened settings
+ * (no DTDs, no external entities, secure processing). DocumentBuilders and Transformers are not thread-safe,
+ * so they are kept in small pools and reset before reuse; StAX factories are thread-safe and shared directly.
+ */
+@Slf4j
+@Component
+public class XmlSupport {
+
+    private static final int POOL_SIZE = 32;
+
+    private final XMLInputFactory inputFactory;
+    private final XMLInputFactory lenientInputFactory;
+    private final XMLOutputFactory outputFactory;
+    private final DocumentBuilderFactory normalizingBuilderFactory;
+    private final TransformerFactory transformerFactory;
+
+    private final BlockingQueue<DocumentBuilder> builders = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Transformer> transformers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public XmlSupport() {
+        this.inputFactory = newInputFactory(true);
+        this.lenientInputFactory = newInputFactory(false);
+        this.outputFactory = XMLOutputFactory.newFactory();
+        this.normalizingBuilderFactory = newNormalizingBuilderFactory();
+        this.transformerFactory = newTransformerFactory();
+    }
+
+    /**
+     * @return the shared namespace-aware, coalescing StAX input factory
+     */
+    public XMLInputFactory inputFactory() {
+        return inputFactory;
+    }
+
+    /**
+     * @return the shared StAX output factory
+     */
+    public XMLOutputFactory outputFactory() {
+        return outputFactory;
+    }
+
+    /**
+     * Checks that the text is well-formed XML with a single streaming pass, no DOM is built.
+     * Namespace prefixes are not resolved, like a default DocumentBuilder.
+     *
+     * @param xml the text to check
+     * @throws XMLStreamException if the XML is not well-formed
+     */
+    public void checkWellFormed(String xml) throws XMLStreamException {
+        XMLStreamReader reader = lenientInputFactory.createXMLStreamReader(new StringReader(xml));
+        try {
+            while (reader.hasNext()) {
+                reader.next();
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parses XML into a namespace-aware DOM, ignoring comments and element-content whitespace and
+     * coalescing CDATA into text. Only used where a tree is really needed (report rendering).
+     */
+    public Document parseNormalized(String xml) throws Exception {
+        DocumentBuilder builder = builders.poll();
+        if (builder == null) {
+            builder = normalizingBuilderFactory.newDocumentBuilder();
+        }
+        try {
+            return builder.parse(new InputSource(new StringReader(xml)));
+        } finally {
+            builder.reset();
+            builders.offer(builder);
+        }
+    }
+
+    /**
+     * Serializes a source with a pooled identity Transformer.
+     *
+     * @param source the XML source
+     * @param indent true to indent with 2 spaces
+     * @param omitXmlDeclaration true to leave out the XML declaration
+     * @return the serialized XML
+     */
+    public String serialize(Source source, boolean indent, boolean omitXmlDeclaration) throws TransformerException {
+        Transformer transformer = transformers.poll();
+        if (transformer == null) {
+            transformer = transformerFactory.newTransformer();
+        }
+        try {
+            transformer.setOutputProperty(OutputKeys.INDENT, indent ? "yes" : "no");
+            if (indent) {
+                transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+            }
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, omitXmlDeclaration ? "yes" : "no");
+
+            StringWriter writer = new StringWriter();
+            transformer.transform(source, new StreamResult(writer));
+            return writer.toString();
+        } finally {
+            transformer.reset();
+            transformers.offer(transformer);
+        }
+    }
+
+    private static XMLInputFactory newInputFactory(boolean namespaceAware) {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, namespaceAware);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static DocumentBuilderFactory newNormalizingBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setIgnoringComments(true);
+        factory.setCoalescing(true);
+        factory.setIgnoringElementContentWhitespace(true);
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Cannot configure DocumentBuilderFactory", e);
+        }
+        return factory;
+    }
+
+    private static TransformerFactory newTransformerFactory() {
+        TransformerFactory factory = TransformerFactory.newInstance();
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("Cannot configure TransformerFactory", e);
+        }
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+        return factory;
+    }
+}
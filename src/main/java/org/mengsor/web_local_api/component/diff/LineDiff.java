@@ -0,0 +1,264 @@
+package org.mengsor.web_local_api.component.diff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Line diff with Myers' O(ND) algorithm, for mismatch reports. The common prefix and suffix are skipped
+ * first and lines are compared by an interned id, so the search only runs on the part that differs.
+ * The search gives up once it needs more than {@code maxEdits} edits or runs past the deadline; the result
+ * then marks the whole differing middle as replaced, which is still correct, just not minimal.
+ */
+public final class LineDiff {
+
+    public enum Op {
+        EQUAL, DELETE, INSERT
+    }
+
+    /**
+     * A run of lines with the same operation, starting at the given 0-based line of each side.
+     */
+    public record Run(Op op, int oldStart, int newStart, int length) {
+
+        Run head(int count) {
+            return new Run(op, oldStart, newStart, count);
+        }
+
+        Run tail(int count) {
+            return new Run(op, oldStart + length - count, newStart + length - count, count);
+        }
+    }
+
+    /**
+     * A group of changes with up to {@code context} equal lines around them.
+     */
+    public record Hunk(int oldStart, int oldCount, int newStart, int newCount, List<Run> runs) {
+    }
+
+    /**
+     * @param runs the edit script, covering both sides from the first line to the last
+     * @param complete false if the budget ran out and the middle was marked replaced as a whole
+     */
+    public record Result(List<Run> runs, boolean complete) {
+
+        public boolean identical() {
+            return runs.stream().allMatch(run -> run.op() == Op.EQUAL);
+        }
+    }
+
+    private LineDiff() {
+    }
+
+    /**
+     * @param maxEdits the most inserted plus deleted lines to search for
+     * @param timeoutNanos the time budget of the search
+     */
+    public static Result diff(List<String> oldLines, List<String> newLines, int maxEdits, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        int oldSize = oldLines.size();
+        int newSize = newLines.size();
+
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && oldLines.get(prefix).equals(newLines.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+                && oldLines.get(oldSize - 1 - suffix).equals(newLines.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        List<Run> runs = new ArrayList<>();
+        if (prefix > 0) {
+            runs.add(new Run(Op.EQUAL, 0, 0, prefix));
+        }
+
+        int oldMiddle = oldSize - prefix - suffix;
+        int newMiddle = newSize - prefix - suffix;
+        boolean complete = true;
+        if (oldMiddle > 0 || newMiddle > 0) {
+            List<Run> middle = null;
+            // at least the size difference has to be inserted or deleted
+            if (Math.abs(oldMiddle - newMiddle) <= maxEdits) {
+                Map<String, Integer> ids = new HashMap<>();
+                int[] a = intern(oldLines.subList(prefix, prefix + oldMiddle), ids, deadline);
+                int[] b = a != null ? intern(newLines.subList(prefix, prefix + newMiddle), ids, deadline) : null;
+                if (b != null) {
+                    middle = myers(a, b, prefix, Math.min(maxEdits, oldMiddle + newMiddle), deadline);
+                }
+            }
+            if (middle == null) {
+                complete = false;
+                middle = new ArrayList<>();
+                if (oldMiddle > 0) middle.add(new Run(Op.DELETE, prefix, prefix, oldMiddle));
+                if (newMiddle > 0) middle.add(new Run(Op.INSERT, prefix + oldMiddle, prefix, newMiddle));
+            }
+            runs.addAll(middle);
+        }
+
+        if (suffix > 0) {
+            runs.add(new Run(Op.EQUAL, oldSize - suffix, newSize - suffix, suffix));
+        }
+        return new Result(runs, complete);
+    }
+
+    /**
+     * Groups the changes into hunks, merging changes separated by at most {@code 2 * context} equal lines.
+     */
+    public static List<Hunk> hunks(List<Run> runs, int context) {
+        List<Hunk> hunks = new ArrayList<>();
+        List<Run> current = null;
+        for (int i = 0; i < runs.size(); i++) {
+            Run run = runs.get(i);
+            if (run.op() == Op.EQUAL) {
+                if (current == null) continue;
+                if (i < runs.size() - 1 && run.length() <= 2 * context) {
+                    current.add(run);
+                } else {
+                    if (context > 0) current.add(run.head(Math.min(context, run.length())));
+                    hunks.add(hunk(current));
+                    current = null;
+                }
+            } else {
+                if (current == null) {
+                    current = new ArrayList<>();
+                    Run previous = i > 0 ? runs.get(i - 1) : null;
+                    if (previous != null && previous.op() == Op.EQUAL && context > 0) {
+                        current.add(previous.tail(Math.min(context, previous.length())));
+                    }
+                }
+                current.add(run);
+            }
+        }
+        if (current != null) {
+            hunks.add(hunk(current));
+        }
+        return hunks;
+    }
+
+    private static Hunk hunk(List<Run> runs) {
+        int oldCount = 0;
+        int newCount = 0;
+        for (Run run : runs) {
+            if (run.op() != Op.INSERT) oldCount += run.length();
+            if (run.op() != Op.DELETE) newCount += run.length();
+        }
+        Run first = runs.get(0);
+        return new Hunk(first.oldStart(), oldCount, first.newStart(), newCount, List.copyOf(runs));
+    }
+
+    /**
+     * @return the line ids, or null if the deadline passed
+     */
+    private static int[] intern(List<String> lines, Map<String, Integer> ids, long deadline) {
+        int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i++) {
+            if ((i & 4095) == 0 && System.nanoTime() > deadline) {
+                return null;
+            }
+            result[i] = ids.computeIfAbsent(lines.get(i), line -> ids.size());
+        }
+        return result;
+    }
+
+    /**
+     * Forward Myers search keeping the V array of every round for the backtrack, so memory is
+     * O(maxEdits^2) at worst.
+     *
+     * @return the runs offset by {@code offset}, or null if the budget ran out
+     */
+    private static List<Run> myers(int[] a, int[] b, int offset, int maxEdits, long deadline) {
+        int n = a.length;
+        int m = b.length;
+        int[] v = new int[2 * maxEdits + 3];
+        int center = maxEdits + 1;
+        List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= maxEdits; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                // a single round can follow long snakes, so the deadline is checked per diagonal
+                if (System.nanoTime() > deadline) {
+                    return null;
+                }
+                int x = k == -d || (k != d && v[center + k - 1] < v[center + k + 1])
+                        ? v[center + k + 1]
+                        : v[center + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                v[center + k] = x;
+                if (x >= n && y >= m) {
+                    trace.add(snapshot(v, center, d));
+                    return backtrack(trace, n, m, offset);
+                }
+            }
+            trace.add(snapshot(v, center, d));
+        }
+        return null;
+    }
+
+    private static int[] snapshot(int[] v, int center, int d) {
+        int[] round = new int[2 * d + 1];
+        System.arraycopy(v, center - d, round, 0, round.length);
+        return round;
+    }
+
+    private static List<Run> backtrack(List<int[]> trace, int n, int m, int offset) {
+        List<Run> reversed = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] previous = trace.get(d - 1); // indexed k + (d - 1)
+            int k = x - y;
+            boolean down = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]);
+            int previousK = down ? k + 1 : k - 1;
+            int previousX = previous[previousK + d - 1];
+            int previousY = previousX - previousK;
+
+            int snake = Math.min(x - previousX - (down ? 0 : 1), y - previousY - (down ? 1 : 0));
+            if (snake > 0) {
+                prepend(reversed, new Run(Op.EQUAL, offset + x - snake, offset + y - snake, snake));
+            }
+            if (down) {
+                prepend(reversed, new Run(Op.INSERT, offset + previousX, offset + previousY, 1));
+            } else {
+                prepend(reversed, new Run(Op.DELETE, offset + previousX, offset + previousY, 1));
+            }
+            x = previousX;
+            y = previousY;
+        }
+        if (x > 0) {
+            prepend(reversed, new Run(Op.EQUAL, offset, offset, x));
+        }
+
+        List<Run> runs = new ArrayList<>(reversed.size());
+        for (int i = reversed.size() - 1; i >= 0; i--) {
+            runs.add(reversed.get(i));
+        }
+        return runs;
+    }
+
+    /**
+     * Adds a run in front of the ones found so far (the list is in reverse), merging it with an adjacent
+     * run of the same operation.
+     */
+    private static void prepend(List<Run> reversed, Run run) {
+        if (!reversed.isEmpty()) {
+            Run next = reversed.get(reversed.size() - 1);
+            if (next.op() == run.op()
+                    && (run.op() == Op.INSERT || run.oldStart() + run.length() == next.oldStart())
+                    && (run.op() == Op.DELETE || run.newStart() + run.length() == next.newStart())) {
+                reversed.set(reversed.size() - 1,
+                        new Run(run.op(), run.oldStart(), run.newStart(), run.length() + next.length()));
+                return;
+            }
+        }
+        reversed.add(run);
+    }
+}
@@ -0,0 +1,76 @@
+package org.mengsor.web_local_api.component.latency;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Random-access view of a response body, read chunk by chunk by the paced writer.
+ */
+public interface BodySource extends Closeable {
+
+    long length();
+
+    /**
+     * Copies up to {@code max} bytes starting at {@code position} into the buffer.
+     *
+     * @return the number of bytes copied, -1 when the source ended early
+     */
+    int read(long position, byte[] buffer, int max) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * @param bytes a pre-encoded body; it is read, never copied or modified
+     */
+    static BodySource of(byte[] bytes) {
+        return new BodySource() {
+            @Override
+            public long length() {
+                return bytes.length;
+            }
+
+            @Override
+            public int read(long position, byte[] buffer, int max) {
+                int n = (int) Math.min(max, bytes.length - position);
+                System.arraycopy(bytes, (int) position, buffer, 0, n);
+                return n;
+            }
+        };
+    }
+
+    /**
+     * @param path the file, opened lazily on the first read
+     * @param start the first byte to send
+     * @param count the number of bytes to send
+     */
+    static BodySource of(Path path, long start, long count) {
+        return new BodySource() {
+            private FileChannel channel;
+
+            @Override
+            public long length() {
+                return count;
+            }
+
+            @Override
+            public int read(long position, byte[] buffer, int max) throws IOException {
+                if (channel == null) channel = FileChannel.open(path, StandardOpenOption.READ);
+                int n = (int) Math.min(max, count - position);
+                return channel.read(ByteBuffer.wrap(buffer, 0, n), start + position);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (channel != null) channel.close();
+            }
+        };
+    }
+}
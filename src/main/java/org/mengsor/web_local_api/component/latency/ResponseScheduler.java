@@ -0,0 +1,161 @@
+package org.mengsor.web_local_api.component.latency;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Sends delayed and throttled stub responses without holding a request thread. The request is put into
+ * async mode and a shared scheduler starts the write when the delay is over. The body is then written with
+ * a non-blocking {@link WriteListener}: a throttled body goes out in small chunks spaced so the average rate
+ * matches the configured bytes per second, an unthrottled body goes out as fast as the client reads it.
+ * Nothing ever sleeps, so thousands of pending responses only cost their timers.
+ */
+@Slf4j
+@Component
+public class ResponseScheduler {
+
+    private static final int MAX_CHUNK = 64 * 1024;
+    private static final int TICKS_PER_SECOND = 10;
+
+    private final ScheduledExecutorService scheduler;
+
+    public ResponseScheduler(@Value("${query.api.scheduler.threads:2}") int threads) {
+        AtomicInteger count = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "stub-scheduler-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Writes the body after the delay. Status and headers must already be set on the response.
+     *
+     * @param request the current request, switched to async mode unless it already is
+     * @param delayMillis how long to wait before the first byte
+     * @param bytesPerSecond the write rate, 0 for unlimited
+     * @param body the body to write; closed when the response completes
+     */
+    public void send(HttpServletRequest request, long delayMillis, long bytesPerSecond, BodySource body) {
+        AsyncContext async = request.isAsyncStarted() ? request.getAsyncContext() : request.startAsync();
+        async.setTimeout(0); // completed by the writer, never by the container
+
+        scheduler.schedule(() -> {
+            try {
+                ServletOutputStream out = async.getResponse().getOutputStream();
+                out.setWriteListener(new PacedWriter(async, out, body, bytesPerSecond));
+            } catch (Exception e) {
+                log.error("Failed to start delayed response", e);
+                finish(async, body);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void finish(AsyncContext async, BodySource body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.debug("Failed to close response body", e);
+        }
+        try {
+            async.complete();
+        } catch (IllegalStateException e) {
+            // the container already completed the request, e.g. after the client went away
+        }
+    }
+
+    private final class PacedWriter implements WriteListener {
+
+        private final AsyncContext async;
+        private final ServletOutputStream out;
+        private final BodySource body;
+        private final long bytesPerSecond;
+        private final byte[] buffer;
+        private final long startNanos = System.nanoTime();
+        private long position;
+        private boolean done;
+
+        PacedWriter(AsyncContext async, ServletOutputStream out, BodySource body, long bytesPerSecond) {
+            this.async = async;
+            this.out = out;
+            this.body = body;
+            this.bytesPerSecond = bytesPerSecond;
+            int chunk = bytesPerSecond > 0
+                    ? (int) Math.max(1, Math.min(MAX_CHUNK, bytesPerSecond / TICKS_PER_SECOND))
+                    : MAX_CHUNK;
+            this.buffer = new byte[(int) Math.min(chunk, Math.max(1, body.length()))];
+        }
+
+        @Override
+        public void onWritePossible() {
+            pump();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.debug("Client went away during a delayed response: {}", t.getMessage());
+            complete();
+        }
+
+        /**
+         * Writes while the connection accepts data. When isReady() returns false the container calls
+         * onWritePossible again later; when the rate is reached the next chunk is put on the scheduler.
+         */
+        private synchronized void pump() {
+            if (done) return;
+            try {
+                while (out.isReady()) {
+                    long length = body.length();
+                    if (position >= length) {
+                        complete();
+                        return;
+                    }
+                    int n = body.read(position, buffer, buffer.length);
+                    if (n <= 0) {
+                        complete();
+                        return;
+                    }
+                    out.write(buffer, 0, n);
+                    position += n;
+
+                    if (bytesPerSecond > 0 && position < length) {
+                        long dueNanos = startNanos + position * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+                        long waitNanos = dueNanos - System.nanoTime();
+                        if (waitNanos > 0) {
+                            scheduler.schedule(this::pump, waitNanos, TimeUnit.NANOSECONDS);
+                            return;
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Delayed response aborted: {}", e.getMessage());
+                complete();
+            }
+        }
+
+        private synchronized void complete() {
+            if (done) return;
+            done = true;
+            finish(async, body);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.mengsor.web_local_api.component.latency;
+
+import org.mengsor.web_local_api.model.ApiConfig;
+import org.mengsor.web_local_api.model.enums.DelayMode;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Simulated latency and bandwidth of a stub, compiled from its ApiConfig.
+ * <ul>
+ *     <li>FIXED - always {@code delayMs}</li>
+ *     <li>UNIFORM - uniformly distributed between {@code delayMs} and {@code delayMaxMs}</li>
+ *     <li>LOG_NORMAL - median {@code delayMs} and shape {@code delaySigma}, capped at {@code delayMaxMs} if set</li>
+ * </ul>
+ * The throttle caps how fast the body is written, in bytes per second.
+ */
+public final class ResponseTiming {
+
+    public static final ResponseTiming NONE = new ResponseTiming(DelayMode.NONE, 0, 0, 0, 0);
+
+    /** Upper bound for any sampled delay, so a typo cannot park a request for days. */
+    private static final long MAX_DELAY_MS = 10 * 60 * 1000L;
+
+    private final DelayMode mode;
+    private final long delayMs;
+    private final long delayMaxMs;
+    private final double sigma;
+    private final long bytesPerSecond;
+
+    private ResponseTiming(DelayMode mode, long delayMs, long delayMaxMs, double sigma, long bytesPerSecond) {
+        this.mode = mode;
+        this.delayMs = delayMs;
+        this.delayMaxMs = delayMaxMs;
+        this.sigma = sigma;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the settings are inconsistent
+     */
+    public static ResponseTiming of(ApiConfig config) {
+        DelayMode mode = config.getDelayMode() != null ? config.getDelayMode() : DelayMode.NONE;
+        long delay = config.getDelayMs() != null ? config.getDelayMs() : 0;
+        long max = config.getDelayMaxMs() != null ? config.getDelayMaxMs() : 0;
+        double sigma = config.getDelaySigma() != null ? config.getDelaySigma() : 0;
+        long throttle = config.getThrottleBytesPerSecond() != null ? config.getThrottleBytesPerSecond() : 0;
+
+        if (delay < 0 || max < 0 || throttle < 0) {
+            throw new IllegalArgumentException("Delay and throttle values must not be negative");
+        }
+        if (delay > MAX_DELAY_MS || max > MAX_DELAY_MS) {
+            throw new IllegalArgumentException("Delay must not exceed " + MAX_DELAY_MS + " ms");
+        }
+        switch (mode) {
+            case UNIFORM -> {
+                if (max < delay) throw new IllegalArgumentException("Max delay must not be less than the delay");
+            }
+            case LOG_NORMAL -> {
+                if (delay == 0) throw new IllegalArgumentException("Log-normal delay needs a median delay");
+                if (!(sigma > 0)) throw new IllegalArgumentException("Log-normal delay needs a sigma greater than 0");
+            }
+            default -> {
+            }
+        }
+
+        if ((mode == DelayMode.NONE || delay == 0 && max == 0) && throttle == 0) return NONE;
+        return new ResponseTiming(mode, delay, max, sigma, throttle);
+    }
+
+    /**
+     * @return true if the response can be written right away at full speed
+     */
+    public boolean isImmediate() {
+        return this == NONE;
+    }
+
+    public long bytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Samples the delay for one request.
+     */
+    public long nextDelayMillis() {
+        return switch (mode) {
+            case NONE -> 0;
+            case FIXED -> delayMs;
+            case UNIFORM -> delayMaxMs == delayMs ? delayMs
+                    : ThreadLocalRandom.current().nextLong(delayMs, delayMaxMs + 1);
+            case LOG_NORMAL -> {
+                double sample = delayMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+                long cap = delayMaxMs > 0 ? delayMaxMs : MAX_DELAY_MS;
+                yield Math.min(cap, Math.round(sample));
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package org.mengsor.web_local_api.component.matcher;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * A request-body template compiled once at save/load time. Only the incoming body is processed per request.
+ */
+public interface BodyMatcher {
+
+    /**
+     * @param requestBody the incoming request body, may be null
+     * @return true if the body is equivalent to the compiled template
+     */
+    boolean matches(String requestBody);
+
+    /** Matcher used when no request body template is configured. */
+    BodyMatcher ANY = requestBody -> true;
+
+    /** Matcher used when the template itself cannot be compiled. */
+    BodyMatcher NONE = requestBody -> false;
+}
@@ -0,0 +1,57 @@
+package org.mengsor.web_local_api.component.matcher;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.component.XmlSupport;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Compiles request-body templates into {@link BodyMatcher}s. The body type is detected from the template
+ * the same way the mismatch report does: '{' is JSON, '<' is XML, anything else is plain text.
+ */
+@Slf4j
+@Component
+public class BodyMatchers {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // the streaming matcher relies on the parser to reject repeated keys
+    private final JsonFactory streamingFactory = JsonFactory.builder()
+            .enable(StreamReadFeature.STRICT_DUPLICATE_DETECTION)
+            .build();
+    private final XMLInputFactory xmlInputFactory;
+
+    public BodyMatchers(XmlSupport xmlSupport) {
+        this.xmlInputFactory = xmlSupport.inputFactory();
+    }
+
+    /**
+     * @param template the configured request body, may be null or blank
+     * @return a matcher for the template, {@link BodyMatcher#ANY} when there is no template and
+     *         {@link BodyMatcher#NONE} when the template cannot be parsed
+     */
+    public BodyMatcher compile(String template) {
+        if (template == null || template.isBlank()) return BodyMatcher.ANY;
+
+        String t = template.trim();
+        try {
+            if (t.startsWith("{")) {
+                JsonNode expected = objectMapper.readTree(t);
+                return new JsonBodyMatcher(streamingFactory, expected);
+            }
+            if (t.startsWith("<")) {
+                return XmlBodyMatcher.compile(xmlInputFactory, t);
+            }
+            return new TextBodyMatcher(t);
+        } catch (Exception e) {
+            log.warn("Request body template cannot be compiled, requests will never match: {}", e.getMessage());
+            return BodyMatcher.NONE;
+        }
+    }
+}
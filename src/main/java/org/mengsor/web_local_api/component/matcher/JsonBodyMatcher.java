@@ -0,0 +1,127 @@
+package org.mengsor.web_local_api.component.matcher;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * JSON object template, parsed once into a canonical JsonNode. The incoming body is never turned into a tree:
+ * it is walked token by token with a {@link JsonParser} against the template and the walk stops at the first
+ * difference, so a large payload that differs early costs almost nothing.
+ * <p>
+ * Same rules as JsonNode.equals: object keys are unordered, arrays are ordered, integers and floating point
+ * numbers are different values. Trailing content after the root object is ignored, as readTree did.
+ * A key repeated in the incoming object counts as a mismatch (the factory must enable duplicate detection).
+ */
+final class JsonBodyMatcher implements BodyMatcher {
+
+    private final JsonFactory jsonFactory;
+    private final JsonNode expected;
+
+    JsonBodyMatcher(JsonFactory jsonFactory, JsonNode expected) {
+        this.jsonFactory = jsonFactory;
+        this.expected = expected;
+    }
+
+    @Override
+    public boolean matches(String requestBody) {
+        if (requestBody == null) return false;
+        String actual = requestBody.trim();
+        if (!actual.startsWith("{")) return false;
+
+        try (JsonParser parser = jsonFactory.createParser(actual)) {
+            return parser.nextToken() != null && matchValue(parser, expected);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Matches the value starting at the parser's current token. On success the parser is left on the
+     * value's last token (END_OBJECT / END_ARRAY for containers).
+     */
+    private static boolean matchValue(JsonParser parser, JsonNode expected) throws IOException {
+        JsonToken token = parser.currentToken();
+
+        switch (token) {
+            case START_OBJECT:
+                return expected.isObject() && matchObject(parser, expected);
+            case START_ARRAY:
+                return expected.isArray() && matchArray(parser, expected);
+            case VALUE_STRING:
+                return expected.isTextual() && textEquals(parser, expected.textValue());
+            case VALUE_NUMBER_INT:
+                return matchInteger(parser, expected);
+            case VALUE_NUMBER_FLOAT:
+                return expected.isFloatingPointNumber()
+                        && Double.compare(parser.getDoubleValue(), expected.doubleValue()) == 0;
+            case VALUE_TRUE:
+                return expected.isBoolean() && expected.booleanValue();
+            case VALUE_FALSE:
+                return expected.isBoolean() && !expected.booleanValue();
+            case VALUE_NULL:
+                return expected.isNull();
+            default:
+                return false;
+        }
+    }
+
+    private static boolean matchObject(JsonParser parser, JsonNode expected) throws IOException {
+        int matched = 0;
+        int expectedSize = expected.size();
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            JsonNode child = expected.get(parser.currentName());
+            if (child == null) return false;
+            matched++;
+
+            parser.nextToken();
+            if (!matchValue(parser, child)) return false;
+        }
+        return token == JsonToken.END_OBJECT && matched == expectedSize;
+    }
+
+    private static boolean matchArray(JsonParser parser, JsonNode expected) throws IOException {
+        int index = 0;
+        int expectedSize = expected.size();
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null || index >= expectedSize) return false;
+            if (!matchValue(parser, expected.get(index++))) return false;
+        }
+        return index == expectedSize;
+    }
+
+    private static boolean matchInteger(JsonParser parser, JsonNode expected) throws IOException {
+        switch (parser.getNumberType()) {
+            case INT:
+                return expected.isInt() && parser.getIntValue() == expected.intValue();
+            case LONG:
+                return expected.isLong() && parser.getLongValue() == expected.longValue();
+            default:
+                return expected.isBigInteger() && parser.getBigIntegerValue().equals(expected.bigIntegerValue());
+        }
+    }
+
+    /**
+     * Compares the current string token without materializing it as a String.
+     */
+    private static boolean textEquals(JsonParser parser, String expected) throws IOException {
+        int length = parser.getTextLength();
+        if (length != expected.length()) return false;
+
+        char[] buffer = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        for (int i = 0; i < length; i++) {
+            if (buffer[offset + i] != expected.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package org.mengsor.web_local_api.component.matcher;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Plain-text template: the trimmed body must be equal to the trimmed template.
+ */
+final class TextBodyMatcher implements BodyMatcher {
+
+    private final String expected;
+
+    TextBodyMatcher(String template) {
+        this.expected = template.trim();
+    }
+
+    @Override
+    public boolean matches(String requestBody) {
+        return requestBody != null && expected.equals(requestBody.trim());
+    }
+}
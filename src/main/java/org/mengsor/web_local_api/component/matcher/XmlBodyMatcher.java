@@ -0,0 +1,143 @@
+package org.mengsor.web_local_api.component.matcher;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * XML template compiled once into a canonical string. The incoming body is canonicalized in a single
+ * StAX pass (no DOM) and compared with it.
+ * <p>
+ * Canonical form: element names with prefix and namespace, attributes and namespace declarations sorted,
+ * comments dropped, whitespace-only text dropped and line breaks removed from text, which is what the
+ * previous DOM comparison ignored.
+ */
+final class XmlBodyMatcher implements BodyMatcher {
+
+    private final XMLInputFactory inputFactory;
+    private final String expected;
+
+    private XmlBodyMatcher(XMLInputFactory inputFactory, String expected) {
+        this.inputFactory = inputFactory;
+        this.expected = expected;
+    }
+
+    static XmlBodyMatcher compile(XMLInputFactory inputFactory, String template) throws XMLStreamException {
+        return new XmlBodyMatcher(inputFactory, canonicalize(inputFactory, template.trim()));
+    }
+
+    @Override
+    public boolean matches(String requestBody) {
+        if (requestBody == null) return false;
+        String actual = requestBody.trim();
+        if (!actual.startsWith("<")) return false;
+
+        try {
+            return canonicalize(inputFactory, actual).equals(expected);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    static String canonicalize(XMLInputFactory inputFactory, String xml) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(xml));
+        StringBuilder out = new StringBuilder(xml.length());
+        StringBuilder text = new StringBuilder();
+
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        flushText(out, text);
+                        appendStartElement(out, reader);
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        flushText(out, text);
+                        out.append("</>");
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    default -> {
+                        // comments, processing instructions and the document prolog are ignored
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return out.toString();
+    }
+
+    private static void appendStartElement(StringBuilder out, XMLStreamReader reader) {
+        out.append('<').append(nullToEmpty(reader.getPrefix()))
+                .append('|').append(nullToEmpty(reader.getNamespaceURI()))
+                .append('|').append(reader.getLocalName());
+
+        int attributeCount = reader.getAttributeCount();
+        if (attributeCount > 0) {
+            List<String> attributes = new ArrayList<>(attributeCount);
+            for (int i = 0; i < attributeCount; i++) {
+                StringBuilder attribute = new StringBuilder();
+                attribute.append(nullToEmpty(reader.getAttributeNamespace(i)))
+                        .append('|').append(reader.getAttributeLocalName(i)).append("=\"");
+                escape(attribute, reader.getAttributeValue(i));
+                attributes.add(attribute.append('"').toString());
+            }
+            attributes.sort(null);
+            attributes.forEach(a -> out.append(' ').append(a));
+        }
+
+        int namespaceCount = reader.getNamespaceCount();
+        if (namespaceCount > 0) {
+            List<String> namespaces = new ArrayList<>(namespaceCount);
+            for (int i = 0; i < namespaceCount; i++) {
+                namespaces.add(" xmlns:" + nullToEmpty(reader.getNamespacePrefix(i))
+                        + "=\"" + nullToEmpty(reader.getNamespaceURI(i)) + '"');
+            }
+            namespaces.sort(null);
+            namespaces.forEach(out::append);
+        }
+        out.append('>');
+    }
+
+    private static void flushText(StringBuilder out, StringBuilder text) {
+        if (text.isEmpty()) return;
+
+        boolean blank = true;
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                blank = false;
+                break;
+            }
+        }
+        if (!blank) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\r' || c == '\n') continue;
+                if (c == '<') out.append("&lt;");
+                else if (c == '&') out.append("&amp;");
+                else out.append(c);
+            }
+        }
+        text.setLength(0);
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append("&quot;");
+            else if (c == '&') out.append("&amp;");
+            else out.append(c);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,258 @@
+package org.mengsor.web_local_api.component.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.component.FileBodyWriter;
+import org.mengsor.web_local_api.component.latency.ResponseTiming;
+import org.mengsor.web_local_api.model.response.ApiResponse;
+import org.mengsor.web_local_api.model.response.EncodedBody;
+import org.mengsor.web_local_api.model.response.FileBody;
+import org.mengsor.web_local_api.services.DynamicApiService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Handles /query.api on the reactive engine. The body is collected from DataBuffers, the same
+ * DynamicApiService pipeline picks and checks the stub, and the response goes out as DataBuffers:
+ * pre-encoded bytes are wrapped, never copied, and file bodies use Netty's zero-copy file region.
+ * Delays are timers and throttled bodies are chunks released on a schedule, so no thread waits on a response.
+ * <p>
+ * The stub pipeline itself is blocking: it writes log lines through the file appender and checks body
+ * files on disk. It therefore runs on the bounded elastic scheduler, and only the response is written
+ * on the event loop.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "query.api.engine", havingValue = "reactive")
+public class ReactiveStubHandler {
+
+    private static final int MAX_CHUNK = 64 * 1024;
+    private static final int TICKS_PER_SECOND = 10;
+    private static final DefaultDataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
+    private final DynamicApiService dynamicApiService;
+
+    public ReactiveStubHandler(DynamicApiService dynamicApiService) {
+        this.dynamicApiService = dynamicApiService;
+    }
+
+    public Mono<ServerResponse> handle(ServerRequest request) {
+        Charset charset = request.headers().contentType()
+                .map(MediaType::getCharset)
+                .orElse(StandardCharsets.UTF_8);
+
+        return DataBufferUtils.join(request.body(BodyExtractors.toDataBuffers()))
+                .map(buffer -> Optional.of(decode(buffer, charset)))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(body -> respond(request, body.orElse(null)))
+                .onErrorResume(e -> {
+                    log.error("Stub request failed: {} {}", request.method(), request.requestPath(), e);
+                    return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                });
+    }
+
+    private Mono<ServerResponse> respond(ServerRequest request, String requestBody) {
+        return Mono.fromCallable(() -> process(request, requestBody))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(handled -> {
+                    ApiResponse response = handled.response();
+                    ResponseTiming timing = response.getTiming() != null ? response.getTiming() : ResponseTiming.NONE;
+
+                    Mono<ServerResponse> reply = response.getFileBody() != null
+                            ? fileResponse(request, response.getFileBody(), handled.fileLength(), response.getStatus(), timing)
+                            : bodyResponse(request, response, timing);
+
+                    long delay = timing.nextDelayMillis();
+                    return delay > 0 ? Mono.delay(Duration.ofMillis(delay)).then(reply) : reply;
+                });
+    }
+
+    /**
+     * The blocking part: runs the stub pipeline and stats the body file, if any.
+     */
+    private Handled process(ServerRequest request, String requestBody) throws IOException {
+        ApiResponse response = dynamicApiService.handleRequest(new ReactiveStubRequest(request), requestBody);
+        long fileLength = 0;
+        if (response.getFileBody() != null) {
+            try {
+                fileLength = Files.size(response.getFileBody().path());
+            } catch (NoSuchFileException e) {
+                log.error("Body file not found: {}", response.getFileBody().path());
+                fileLength = -1;
+            }
+        }
+        return new Handled(response, fileLength);
+    }
+
+    private Mono<ServerResponse> bodyResponse(ServerRequest request, ApiResponse response, ResponseTiming timing) {
+        EncodedBody body = response.getEncodedBody();
+        if (body == null) {
+            body = EncodedBody.of(response.getResponseBody() != null ? response.getResponseBody() : response.getMessage());
+        }
+
+        EncodedBody.Variant variant = body.select(request.headers().firstHeader(HttpHeaders.ACCEPT_ENCODING));
+        ServerResponse.BodyBuilder builder = ServerResponse.status(response.getStatus())
+                .header(HttpHeaders.CONTENT_TYPE, body.contentType())
+                .contentLength(variant.bytes().length);
+        if (body.hasVariants()) {
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (variant.contentEncoding() != null) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, variant.contentEncoding());
+        }
+        return builder.body(BodyInserters.fromDataBuffers(
+                pace(chunks(variant.bytes(), chunkSize(timing)), timing.bytesPerSecond())));
+    }
+
+    /**
+     * Same rules as FileBodyWriter: a single byte range is honoured for 200 stubs.
+     *
+     * @param length the file size, -1 if the file is gone
+     */
+    private Mono<ServerResponse> fileResponse(ServerRequest request, FileBody file, long length, int status,
+                                              ResponseTiming timing) {
+        if (length < 0) {
+            return text(HttpStatus.INTERNAL_SERVER_ERROR, "Body file not found");
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String contentRange = null;
+
+        String rangeHeader = status == HttpStatus.OK.value() ? request.headers().firstHeader(HttpHeaders.RANGE) : null;
+        if (rangeHeader != null) {
+            long[] range = FileBodyWriter.parseRange(rangeHeader, length);
+            if (range == FileBodyWriter.UNSATISFIABLE) {
+                return ServerResponse.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                        .bodyValue("Range not satisfiable");
+            }
+            if (range != null) {
+                start = range[0];
+                end = range[1];
+                status = HttpStatus.PARTIAL_CONTENT.value();
+                contentRange = "bytes " + start + "-" + end + "/" + length;
+            }
+        }
+
+        long from = start;
+        long count = end - start + 1;
+        ServerResponse.BodyBuilder builder = ServerResponse.status(status)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_TYPE, file.contentType())
+                .contentLength(count);
+        if (contentRange != null) {
+            builder.header(HttpHeaders.CONTENT_RANGE, contentRange);
+        }
+
+        BodyInserter<Void, ReactiveHttpOutputMessage> inserter = (message, context) -> {
+            if (count == 0) {
+                return message.setComplete();
+            }
+            if (timing.bytesPerSecond() == 0 && message instanceof ZeroCopyHttpOutputMessage zeroCopy) {
+                return zeroCopy.writeWith(file.path(), from, count);
+            }
+            Flux<DataBuffer> content = DataBufferUtils.takeUntilByteCount(
+                    DataBufferUtils.readAsynchronousFileChannel(
+                            () -> AsynchronousFileChannel.open(file.path(), StandardOpenOption.READ),
+                            from, BUFFERS, chunkSize(timing)),
+                    count);
+            return message.writeWith(pace(content, timing.bytesPerSecond()));
+        };
+        return builder.body(inserter);
+    }
+
+    private static Mono<ServerResponse> text(HttpStatus status, String message) {
+        return ServerResponse.status(status)
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .bodyValue(message);
+    }
+
+    private static String decode(DataBuffer buffer, Charset charset) {
+        try {
+            return buffer.toString(charset);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static int chunkSize(ResponseTiming timing) {
+        long bytesPerSecond = timing.bytesPerSecond();
+        return bytesPerSecond > 0
+                ? (int) Math.max(1, Math.min(MAX_CHUNK, bytesPerSecond / TICKS_PER_SECOND))
+                : MAX_CHUNK;
+    }
+
+    /**
+     * Slices a shared body into buffers that wrap the array; nothing is copied.
+     */
+    private static Flux<DataBuffer> chunks(byte[] bytes, int chunk) {
+        if (bytes.length <= chunk) {
+            return Flux.just(BUFFERS.wrap(bytes));
+        }
+        int count = (bytes.length + chunk - 1) / chunk;
+        return Flux.range(0, count).map(i -> {
+            int offset = i * chunk;
+            return BUFFERS.wrap(ByteBuffer.wrap(bytes, offset, Math.min(chunk, bytes.length - offset)));
+        });
+    }
+
+    /**
+     * @param fileLength size of the response's body file, -1 if it is gone, 0 without one
+     */
+    private record Handled(ApiResponse response, long fileLength) {
+    }
+
+    /**
+     * Releases each buffer when the bytes before it are due at the given rate, measured from the first one,
+     * so timer jitter does not add up over a long body.
+     */
+    private static Flux<DataBuffer> pace(Flux<DataBuffer> content, long bytesPerSecond) {
+        if (bytesPerSecond <= 0) {
+            return content;
+        }
+        return Flux.defer(() -> {
+            long startNanos = System.nanoTime();
+            long[] sent = {0};
+            return content.concatMap(buffer -> {
+                long dueNanos = startNanos + sent[0] * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+                sent[0] += buffer.readableByteCount();
+                long waitNanos = dueNanos - System.nanoTime();
+                return waitNanos > 0
+                        ? Mono.delay(Duration.ofNanos(waitNanos)).thenReturn(buffer)
+                        : Mono.just(buffer);
+            }, 1);
+        });
+    }
+}
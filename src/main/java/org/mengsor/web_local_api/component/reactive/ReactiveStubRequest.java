@@ -0,0 +1,72 @@
+package org.mengsor.web_local_api.component.reactive;
+
+import org.mengsor.web_local_api.model.request.StubRequest;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * StubRequest view of a WebFlux functional request.
+ */
+public record ReactiveStubRequest(ServerRequest request) implements StubRequest {
+
+    @Override
+    public String method() {
+        return request.method().name();
+    }
+
+    @Override
+    public String requestUri() {
+        return request.requestPath().value();
+    }
+
+    @Override
+    public String header(String name) {
+        return request.headers().firstHeader(name);
+    }
+
+    @Override
+    public Map<String, String> headers() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        request.headers().asHttpHeaders().forEach((name, values) -> {
+            if (!values.isEmpty()) headers.put(name, values.get(0));
+        });
+        return headers;
+    }
+
+    @Override
+    public Map<String, String[]> queryParams() {
+        Map<String, String[]> params = new LinkedHashMap<>();
+        request.queryParams().forEach((name, values) -> params.put(name, values.toArray(String[]::new)));
+        return params;
+    }
+
+    @Override
+    public Map<String, String> cookies() {
+        Map<String, String> cookies = new LinkedHashMap<>();
+        request.cookies().forEach((name, values) -> {
+            if (!values.isEmpty()) cookies.put(name, values.get(0).getValue());
+        });
+        return cookies;
+    }
+
+    @Override
+    public String remoteAddr() {
+        return request.remoteAddress()
+                .map(ReactiveStubRequest::hostAddress)
+                .orElse(null);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        request.attributes().put(name, value);
+    }
+
+    private static String hostAddress(InetSocketAddress address) {
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,95 @@
+package org.mengsor.web_local_api.component.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.component.DynamicAuthenticationProvider;
+import org.mengsor.web_local_api.component.DynamicAuthorizationManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Applies the servlet chain's /query.api rules on the reactive engine: Basic credentials go through the
+ * DynamicAuthenticationProvider, bearer tokens through the JwtDecoder, and the DynamicAuthorizationManager
+ * decides for the current security mode. The settings come from the in-memory snapshot, so the check runs
+ * on the event loop.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "query.api.engine", havingValue = "reactive")
+public class ReactiveStubSecurity implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private static final String BASIC = "Basic ";
+    private static final String BEARER = "Bearer ";
+
+    private final DynamicAuthenticationProvider authenticationProvider;
+    private final DynamicAuthorizationManager authorizationManager;
+    private final ObjectProvider<JwtDecoder> jwtDecoder;
+    private final JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
+
+    public ReactiveStubSecurity(DynamicAuthenticationProvider authenticationProvider,
+                                DynamicAuthorizationManager authorizationManager,
+                                ObjectProvider<JwtDecoder> jwtDecoder) {
+        this.authenticationProvider = authenticationProvider;
+        this.authorizationManager = authorizationManager;
+        this.jwtDecoder = jwtDecoder;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        return Mono.fromCallable(() -> isAllowed(request))
+                .flatMap(allowed -> allowed
+                        ? next.handle(request)
+                        : ServerResponse.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @SuppressWarnings("deprecation")
+    private boolean isAllowed(ServerRequest request) {
+        Authentication authentication = authenticate(request.headers().firstHeader(HttpHeaders.AUTHORIZATION));
+        return authorizationManager.check(() -> authentication, null).isGranted();
+    }
+
+    /**
+     * @return the authenticated caller, null when there are no or no valid credentials
+     */
+    private Authentication authenticate(String authorization) {
+        if (authorization == null) {
+            return null;
+        }
+        try {
+            if (authorization.regionMatches(true, 0, BASIC, 0, BASIC.length())) {
+                String decoded = new String(Base64.getDecoder().decode(authorization.substring(BASIC.length()).trim()),
+                        StandardCharsets.UTF_8);
+                int colon = decoded.indexOf(':');
+                if (colon < 0) return null;
+                return authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(
+                        decoded.substring(0, colon), decoded.substring(colon + 1)));
+            }
+            if (authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+                JwtDecoder decoder = jwtDecoder.getIfAvailable();
+                if (decoder == null) return null;
+                return jwtConverter.convert(decoder.decode(authorization.substring(BEARER.length()).trim()));
+            }
+        } catch (AuthenticationException | JwtException | IllegalArgumentException e) {
+            log.debug("Rejected credentials: {}", e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package org.mengsor.web_local_api.component.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Reactive engine for /query.api, enabled with {@code query.api.engine=reactive}. Runs a Reactor Netty
+ * server on its own port next to Tomcat, which keeps serving the UI and the servlet /query.api endpoint.
+ * A few event-loop threads carry every connection, so the number of concurrent clients is bounded by
+ * sockets and memory rather than by a worker pool.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "query.api.engine", havingValue = "reactive")
+public class ReactiveStubServer implements SmartLifecycle {
+
+    private final ReactiveStubHandler handler;
+    private final ReactiveStubSecurity security;
+    private final String host;
+    private final int port;
+    private volatile DisposableServer server;
+
+    public ReactiveStubServer(ReactiveStubHandler handler, ReactiveStubSecurity security,
+                              @Value("${query.api.reactive.host:0.0.0.0}") String host,
+                              @Value("${query.api.reactive.port:8082}") int port) {
+        this.handler = handler;
+        this.security = security;
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .GET("/query.api/health", request -> ServerResponse.ok()
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .bodyValue("OK"))
+                .route(RequestPredicates.path("/query.api/**").and(RequestPredicates.methods(
+                        HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)), handler::handle)
+                .filter(security)
+                .build();
+
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(routes, HandlerStrategies.withDefaults());
+        server = HttpServer.create()
+                .host(host)
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive stub engine listening on {}:{}", host, server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer current = server;
+        server = null;
+        if (current != null) current.disposeNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * @return the bound port, useful when {@code query.api.reactive.port=0}
+     */
+    public int port() {
+        DisposableServer current = server;
+        return current != null ? current.port() : port;
+    }
+}
@@ -0,0 +1,65 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import lombok.Builder;
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.enums.MatchStatus;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * The raw facts of one stub request, taken on the request thread. Everything that costs more than a
+ * field copy (id, formatted timestamp, the RequestLog itself) is left to the log writer thread.
+ */
+@Builder
+public record RequestCapture(Instant time,
+                             String method,
+                             String url,
+                             String clientIp,
+                             Map<String, String> headers,
+                             String requestBody,
+                             String responseBody,
+                             String expectedRequestBody,
+                             String apiName,
+                             String nonMatchReport,
+                             String stubMethod,
+                             String stubUrl,
+                             List<String> headerDiffs,
+                             MatchStatus matchStatus,
+                             int status,
+                             int statusCode) {
+
+    private static final ZoneId ZONE = ZoneId.of("GMT+7");
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSSSS").withZone(ZONE);
+
+    public RequestLog toLog() {
+        RequestLog log = new RequestLog();
+        log.setId(UUID.randomUUID().toString());
+        log.setTimestamp(TIMESTAMP.format(time));
+        log.setEpochMillis(time.toEpochMilli());
+        log.setUrl(url);
+        log.setMethod(method);
+        log.setClientIp(clientIp);
+        log.setHeaders(headers);
+        log.setRequestBody(requestBody);
+        log.setResponseBody(responseBody);
+        log.setExpectedRequestBody(expectedRequestBody);
+        log.setApiName(apiName);
+        log.setNonMatchReport(nonMatchReport);
+        log.setStubMethod(stubMethod);
+        log.setStubUrl(stubUrl);
+        log.setHeaderDiffs(headerDiffs);
+        log.setMatchStatus(matchStatus);
+        log.setStatus(status);
+        log.setStatusCode(statusCode);
+        log.setDuration(0);
+        return log;
+    }
+}
@@ -0,0 +1,177 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.RequestLogQuery;
+import org.mengsor.web_local_api.model.response.RequestLogSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Live tail of the request log over Server-Sent Events. The log writer thread hands every batch over; each
+ * subscriber gets the summaries that pass its filter in its own bounded buffer, and a small sender pool
+ * drains the buffers to the clients. A slow client only fills its own buffer: further logs are counted and
+ * reported to it as a {@code dropped} event instead of blocking the writer or the other subscribers.
+ * <p>
+ * Events: {@code log} with a RequestLogSummary, {@code dropped} with the number of skipped logs.
+ */
+@Slf4j
+@Component
+public class RequestLogBroadcaster {
+
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService sender;
+    private final int bufferSize;
+    private final int maxSubscribers;
+
+    public RequestLogBroadcaster(@Value("${request.log.tail.buffer:256}") int bufferSize,
+                                 @Value("${request.log.tail.max-subscribers:50}") int maxSubscribers) {
+        if (bufferSize <= 0 || maxSubscribers <= 0) {
+            throw new IllegalArgumentException("Request log tail buffer and max subscribers must be greater than 0");
+        }
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger count = new AtomicInteger();
+        this.sender = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "request-log-tail-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sender.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A client that went away is only noticed on the next send, so when the limit is reached a keep-alive
+     * goes out to everyone right away; subscribers that fail it are removed and a retry gets in.
+     *
+     * @param filter only logs passing this filter are sent
+     * @throws IllegalStateException if there are already too many subscribers
+     */
+    public SseEmitter subscribe(RequestLogQuery filter) {
+        if (subscribers.size() >= maxSubscribers) {
+            heartbeat();
+            throw new IllegalStateException("Too many request log subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, filter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Called by the log writer thread; never blocks.
+     */
+    public void publish(List<RequestLog> batch) {
+        for (Subscriber subscriber : subscribers) {
+            boolean added = false;
+            for (RequestLog log : batch) {
+                if (!subscriber.filter.matches(log)) continue;
+                if (subscriber.buffer.offer(RequestLogSummary.of(log))) {
+                    added = true;
+                } else {
+                    subscriber.dropped.incrementAndGet();
+                }
+            }
+            if (added || subscriber.dropped.get() > 0) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber, false));
+        }
+    }
+
+    /**
+     * Runs on the sender pool, at most once at a time per subscriber.
+     *
+     * @param keepAlive send a keep-alive comment if there is nothing else to send
+     */
+    private void drain(Subscriber subscriber, boolean keepAlive) {
+        try {
+            long dropped = subscriber.dropped.getAndSet(0);
+            if (dropped > 0) {
+                subscriber.emitter.send(SseEmitter.event().name("dropped").data(dropped));
+            }
+            List<RequestLogSummary> pending = new ArrayList<>();
+            RequestLogSummary summary;
+            while ((summary = subscriber.buffer.poll()) != null) {
+                pending.add(summary);
+            }
+            for (RequestLogSummary item : pending) {
+                subscriber.emitter.send(SseEmitter.event().name("log").id(item.id()).data(item));
+            }
+            if (keepAlive && dropped == 0 && pending.isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Request log subscriber went away: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // logs that arrived while this drain was sending, and whose publish() saw the flag still set
+        if (!subscriber.buffer.isEmpty() || subscriber.dropped.get() > 0) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Goes through drain(), so logs published while the keep-alive is sent are picked up afterwards.
+     */
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sending.compareAndSet(false, true)) {
+                sender.execute(() -> drain(subscriber, true));
+            }
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final RequestLogQuery filter;
+        private final Queue<RequestLogSummary> buffer;
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, RequestLogQuery filter, int bufferSize) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.enums.MatchStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Binary form of a RequestLog in a segment file: a version byte, then the fields in a fixed order.
+ * Strings are an int byte length (-1 for null) followed by UTF-8, so large bodies are not limited to 64K.
+ * Version 2 adds the closest stub's method and path and the header differences; version 1 records are
+ * still read.
+ */
+final class RequestLogCodec {
+
+    private static final byte VERSION = 2;
+    private static final MatchStatus[] MATCH_STATUSES = MatchStatus.values();
+
+    private RequestLogCodec() {
+    }
+
+    static void write(DataOutput out, RequestLog log) throws IOException {
+        out.writeByte(VERSION);
+        out.writeLong(log.getEpochMillis());
+        writeString(out, log.getId());
+        writeString(out, log.getTimestamp());
+        writeString(out, log.getUrl());
+        writeString(out, log.getMethod());
+        writeString(out, log.getClientIp());
+        writeString(out, log.getApiName());
+        writeString(out, log.getRequestBody());
+        writeString(out, log.getResponseBody());
+        writeString(out, log.getExpectedRequestBody());
+        writeString(out, log.getNonMatchReport());
+        out.writeByte(log.getMatchStatus() != null ? log.getMatchStatus().ordinal() : -1);
+        out.writeInt(log.getStatus());
+        out.writeInt(log.getStatusCode());
+        out.writeLong(log.getDuration());
+
+        Map<String, String> headers = log.getHeaders();
+        out.writeInt(headers != null ? headers.size() : -1);
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                writeString(out, header.getKey());
+                writeString(out, header.getValue());
+            }
+        }
+
+        writeString(out, log.getStubMethod());
+        writeString(out, log.getStubUrl());
+        List<String> headerDiffs = log.getHeaderDiffs();
+        out.writeInt(headerDiffs != null ? headerDiffs.size() : -1);
+        if (headerDiffs != null) {
+            for (String diff : headerDiffs) {
+                writeString(out, diff);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if the record was written by an unknown version or is truncated
+     */
+    static RequestLog read(DataInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported request log record version " + version);
+        }
+        RequestLog log = new RequestLog();
+        log.setEpochMillis(in.readLong());
+        log.setId(readString(in));
+        log.setTimestamp(readString(in));
+        log.setUrl(readString(in));
+        log.setMethod(readString(in));
+        log.setClientIp(readString(in));
+        log.setApiName(readString(in));
+        log.setRequestBody(readString(in));
+        log.setResponseBody(readString(in));
+        log.setExpectedRequestBody(readString(in));
+        log.setNonMatchReport(readString(in));
+        byte matchStatus = in.readByte();
+        log.setMatchStatus(matchStatus >= 0 && matchStatus < MATCH_STATUSES.length ? MATCH_STATUSES[matchStatus] : null);
+        log.setStatus(in.readInt());
+        log.setStatusCode(in.readInt());
+        log.setDuration(in.readLong());
+
+        int headerCount = in.readInt();
+        if (headerCount >= 0) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                headers.put(readString(in), readString(in));
+            }
+            log.setHeaders(headers);
+        }
+        if (version == 1) {
+            return log;
+        }
+
+        log.setStubMethod(readString(in));
+        log.setStubUrl(readString(in));
+        int diffCount = in.readInt();
+        if (diffCount >= 0) {
+            List<String> headerDiffs = new ArrayList<>(diffCount);
+            for (int i = 0; i < diffCount; i++) {
+                headerDiffs.add(readString(in));
+            }
+            log.setHeaderDiffs(headerDiffs);
+        }
+        return log;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
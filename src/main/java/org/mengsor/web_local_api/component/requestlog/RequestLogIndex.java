@@ -0,0 +1,121 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.RequestLogQuery;
+import org.mengsor.web_local_api.model.enums.MatchStatus;
+import org.mengsor.web_local_api.model.response.RequestLogSummary;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Secondary indexes over the ring: id to sequence, and per stub name, URL, method, match status and status
+ * code the ascending sequences of the logs that have that value. Entries are added when a log is appended
+ * and removed when the ring overwrites it. Not thread-safe; RequestLogRing guards it with a read-write lock.
+ */
+final class RequestLogIndex {
+
+    private static final SequenceList EMPTY = new SequenceList();
+
+    private final Map<String, Long> byId = new HashMap<>();
+    private final Map<String, SequenceList> byApiName = new HashMap<>();
+    private final Map<String, SequenceList> byUrl = new HashMap<>();
+    private final Map<String, SequenceList> byMethod = new HashMap<>();
+    private final Map<MatchStatus, SequenceList> byMatchStatus = new EnumMap<>(MatchStatus.class);
+    private final Map<Integer, SequenceList> byStatusCode = new HashMap<>();
+
+    void add(long sequence, RequestLog log) {
+        if (log.getId() != null) byId.put(log.getId(), sequence);
+        add(byApiName, log.getApiName(), sequence);
+        add(byUrl, log.getUrl(), sequence);
+        add(byMethod, methodKey(log.getMethod()), sequence);
+        add(byMatchStatus, log.getMatchStatus(), sequence);
+        add(byStatusCode, RequestLogSummary.statusCode(log), sequence);
+    }
+
+    void remove(long sequence, RequestLog log) {
+        if (log.getId() != null) byId.remove(log.getId(), sequence);
+        remove(byApiName, log.getApiName(), sequence);
+        remove(byUrl, log.getUrl(), sequence);
+        remove(byMethod, methodKey(log.getMethod()), sequence);
+        remove(byMatchStatus, log.getMatchStatus(), sequence);
+        remove(byStatusCode, RequestLogSummary.statusCode(log), sequence);
+    }
+
+    void clear() {
+        byId.clear();
+        byApiName.clear();
+        byUrl.clear();
+        byMethod.clear();
+        byMatchStatus.clear();
+        byStatusCode.clear();
+    }
+
+    /**
+     * @return the sequence of the log with that id, null if it is not retained
+     */
+    Long sequenceOf(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Picks the shortest posting list among the filters that are set.
+     *
+     * @return the candidates, an empty list if a filter matches nothing, or null if no indexed filter is set
+     */
+    SequenceList candidates(RequestLogQuery query) {
+        SequenceList best = null;
+        boolean filtered = false;
+        if (query.getApiName() != null) {
+            filtered = true;
+            best = shorter(best, byApiName.get(query.getApiName()));
+        }
+        if (query.getUrl() != null) {
+            filtered = true;
+            best = shorter(best, byUrl.get(query.getUrl()));
+        }
+        if (query.getMethod() != null) {
+            filtered = true;
+            best = shorter(best, byMethod.get(methodKey(query.getMethod())));
+        }
+        if (query.getMatchStatus() != null) {
+            filtered = true;
+            best = shorter(best, byMatchStatus.get(query.getMatchStatus()));
+        }
+        if (query.getStatusCode() != null) {
+            filtered = true;
+            best = shorter(best, byStatusCode.get(query.getStatusCode()));
+        }
+        return filtered ? best : null;
+    }
+
+    static String methodKey(String method) {
+        return method != null ? method.toUpperCase(Locale.ROOT) : null;
+    }
+
+    private static SequenceList shorter(SequenceList current, SequenceList candidate) {
+        // a filter value no log has: the result is empty whatever the other filters say
+        if (candidate == null) return EMPTY;
+        if (current == null) return candidate;
+        return candidate.size() < current.size() ? candidate : current;
+    }
+
+    private static <K> void add(Map<K, SequenceList> index, K key, long sequence) {
+        if (key == null) return;
+        index.computeIfAbsent(key, k -> new SequenceList()).add(sequence);
+    }
+
+    private static <K> void remove(Map<K, SequenceList> index, K key, long sequence) {
+        if (key == null) return;
+        SequenceList list = index.get(key);
+        if (list == null) return;
+        list.removeThrough(sequence);
+        if (list.size() == 0) {
+            index.remove(key);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.model.RequestLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Moves request logging off the request thread. Request threads only offer a RequestCapture to a bounded
+ * queue; a single writer thread drains it in batches, turns the captures into RequestLogs and hands each
+ * batch to the sink. When the queue is full the capture is dropped and counted, so a logging backlog never
+ * slows down or blocks a stub response.
+ */
+@Slf4j
+public final class RequestLogPipeline implements AutoCloseable {
+
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private final BlockingQueue<RequestCapture> queue;
+    private final int batchSize;
+    private final Consumer<List<RequestLog>> sink;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long reportedDrops;
+
+    /**
+     * @param queueCapacity captures waiting to be written before new ones are dropped
+     * @param batchSize the most captures converted and handed to the sink at once
+     * @param sink receives every batch, in capture order, on the writer thread
+     */
+    public RequestLogPipeline(int queueCapacity, int batchSize, Consumer<List<RequestLog>> sink) {
+        if (queueCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Request log queue capacity and batch size must be greater than 0");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.sink = sink;
+        this.writer = Thread.ofPlatform().name("request-log-writer").daemon().start(this::run);
+    }
+
+    /**
+     * Never blocks; drops the capture when the writer is behind.
+     */
+    public void publish(RequestCapture capture) {
+        if (!queue.offer(capture)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return how many captures were dropped because the queue was full
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops the writer after it has written what is already queued. The writer is signalled through a flag,
+     * not interrupted: an interrupt during a FileChannel write would close the store's segment.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<RequestCapture> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                // wake up now and then to notice close()
+                RequestCapture first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            // unexpected; leave the flag cleared so the FileChannel writes of the final drain still work
+        }
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+        }
+    }
+
+    private void write(List<RequestCapture> batch) {
+        try {
+            List<RequestLog> logs = new ArrayList<>(batch.size());
+            for (RequestCapture capture : batch) {
+                logs.add(capture.toLog());
+            }
+            sink.accept(logs);
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} request logs", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+
+        long drops = dropped.get();
+        if (drops != reportedDrops) {
+            log.warn("Request log queue full, {} request logs dropped since startup", drops);
+            reportedDrops = drops;
+        }
+    }
+}
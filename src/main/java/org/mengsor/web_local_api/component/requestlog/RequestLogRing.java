@@ -0,0 +1,262 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.RequestLogQuery;
+import org.mengsor.web_local_api.model.response.RequestLogPage;
+import org.mengsor.web_local_api.model.response.RequestLogSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Fixed-capacity ring of the most recent request logs. Writers claim a sequence number with one atomic
+ * increment and publish into the slot it maps to, overwriting the oldest entry. Readers copy the live
+ * window without locking: a slot whose sequence does not match the one being read was overwritten or is
+ * not published yet and is skipped. Entries older than the maximum age are left out of reads and simply
+ * overwritten later.
+ * <p>
+ * Queries use the RequestLogIndex to jump to the logs of one stub, URL, method, match status or status
+ * code, and to a time range by binary search over the sequences, which are in capture order. The index is
+ * guarded by a read-write lock, and that is the cost of indexing: an append takes the write lock to update
+ * it, while a query takes the read lock only to look up an id or to copy a bounded chunk of candidate
+ * sequences and checks the slots after releasing it, so a long filtered scan holds up the log writer for
+ * at most one chunk copy. Pages are walked newest first; the cursor is a sequence number.
+ */
+public final class RequestLogRing {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    // candidate sequences copied per read lock
+    private static final int CANDIDATE_CHUNK = 512;
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final int capacity;
+    private final long maxAgeMillis;
+    private final AtomicLong next = new AtomicLong();
+    // sequences below this were cleared
+    private final AtomicLong floor = new AtomicLong();
+    private final RequestLogIndex index = new RequestLogIndex();
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+
+    /**
+     * @param capacity the number of entries kept
+     * @param maxAgeMillis entries older than this are dropped from reads, 0 to keep them until overwritten
+     */
+    public RequestLogRing(int capacity, long maxAgeMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Request log capacity must be greater than 0");
+        }
+        if (maxAgeMillis < 0) {
+            throw new IllegalArgumentException("Request log max age must not be negative");
+        }
+        this.capacity = capacity;
+        this.maxAgeMillis = maxAgeMillis;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void append(RequestLog log) {
+        long created = log.getEpochMillis() > 0 ? log.getEpochMillis() : System.currentTimeMillis();
+        long sequence = next.getAndIncrement();
+        Slot slot = new Slot(sequence, created, log);
+        Slot evicted = slots.getAndSet(slotIndex(sequence), slot);
+
+        indexLock.writeLock().lock();
+        try {
+            if (evicted != null) index.remove(evicted.sequence, evicted.log);
+            index.add(sequence, log);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the retained log with that id, null if there is none
+     */
+    public RequestLog find(String id) {
+        Long sequence = sequenceOf(id);
+        if (sequence == null || sequence < floor.get()) return null;
+        Slot slot = live(sequence, oldestMillis());
+        return slot != null ? slot.log : null;
+    }
+
+    /**
+     * Runs a query using the indexes, newest logs first.
+     *
+     * @throws IllegalArgumentException if the cursor is not one this ring handed out
+     */
+    public RequestLogPage query(RequestLogQuery query) {
+        int limit = query.getLimit() == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(MAX_PAGE_SIZE, query.getLimit()));
+        long oldest = oldestMillis();
+        if (query.getFrom() != null) oldest = Math.max(oldest, query.getFrom());
+
+        long end = next.get();
+        long lower = Math.max(floor.get(), Math.max(0, end - capacity));
+        long upper = query.getCursor() != null ? Math.min(end, parseCursor(query.getCursor())) : end;
+        if (oldest > Long.MIN_VALUE) lower = firstAtOrAfter(oldest, lower, upper);
+        if (query.getTo() != null) upper = firstAtOrAfter(query.getTo(), lower, upper);
+
+        List<RequestLogSummary> items = new ArrayList<>(limit);
+        long last = -1;
+        if (query.getId() != null) {
+            Long sequence = sequenceOf(query.getId());
+            if (sequence != null && sequence >= lower && sequence < upper) {
+                Slot slot = live(sequence, oldest);
+                if (slot != null && query.matches(slot.log)) items.add(RequestLogSummary.of(slot.log));
+            }
+            return new RequestLogPage(items, null);
+        }
+
+        long[] chunk = new long[Math.max(limit, CANDIDATE_CHUNK)];
+        // -1 if no indexed filter is set; then every sequence is walked
+        int chunkSize = copyCandidates(query, upper, chunk);
+        int position = 0;
+        long sequence = upper;
+        while (items.size() < limit) {
+            if (chunkSize < 0) {
+                sequence--;
+            } else {
+                if (position == chunkSize) {
+                    if (chunkSize < chunk.length) break; // that copy held every remaining candidate
+                    chunkSize = copyCandidates(query, sequence, chunk);
+                    position = 0;
+                    if (chunkSize <= 0) break;
+                }
+                sequence = chunk[position++];
+            }
+            if (sequence < lower) break;
+
+            Slot slot = live(sequence, oldest);
+            if (slot != null && query.matches(slot.log)) {
+                items.add(RequestLogSummary.of(slot.log));
+                last = sequence;
+            }
+        }
+        return new RequestLogPage(items, items.size() == limit ? String.valueOf(last) : null);
+    }
+
+    /**
+     * @return the retained logs, oldest first
+     */
+    public List<RequestLog> snapshot() {
+        return snapshot(log -> true);
+    }
+
+    /**
+     * @return the retained logs accepted by the filter, oldest first
+     */
+    public List<RequestLog> snapshot(Predicate<RequestLog> filter) {
+        long end = next.get();
+        long start = Math.max(floor.get(), end - capacity);
+        long oldest = oldestMillis();
+
+        List<RequestLog> logs = new ArrayList<>((int) Math.max(0, end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot slot = live(sequence, oldest);
+            if (slot != null && filter.test(slot.log)) {
+                logs.add(slot.log);
+            }
+        }
+        return logs;
+    }
+
+    /**
+     * Hides every entry appended so far; concurrent appends may or may not survive.
+     */
+    public void clear() {
+        long end = next.get();
+        floor.accumulateAndGet(end, Math::max);
+        indexLock.writeLock().lock();
+        try {
+            for (long sequence = Math.max(0, end - capacity); sequence < end; sequence++) {
+                int index = slotIndex(sequence);
+                Slot slot = slots.get(index);
+                if (slot != null && slot.sequence < end && slots.compareAndSet(index, slot, null)) {
+                    this.index.remove(slot.sequence, slot.log);
+                }
+            }
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private Long sequenceOf(String id) {
+        indexLock.readLock().lock();
+        try {
+            return index.sequenceOf(id);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Holds the read lock for one bounded copy; the caller checks the slots after it is released.
+     *
+     * @return the number of candidate sequences below {@code bound} copied into {@code into}, newest first,
+     *         or -1 if the query sets no indexed filter
+     */
+    private int copyCandidates(RequestLogQuery query, long bound, long[] into) {
+        indexLock.readLock().lock();
+        try {
+            SequenceList candidates = index.candidates(query);
+            return candidates != null ? candidates.copyBelow(bound, into) : -1;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    private int slotIndex(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private long oldestMillis() {
+        return maxAgeMillis > 0 ? System.currentTimeMillis() - maxAgeMillis : Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the slot holding that sequence if it is still there and not older than {@code oldest}
+     */
+    private Slot live(long sequence, long oldest) {
+        Slot slot = slots.get(slotIndex(sequence));
+        return slot != null && slot.sequence == sequence && slot.createdMillis >= oldest ? slot : null;
+    }
+
+    /**
+     * Binary search for the first sequence in [low, high) captured at or after the given time. Empty or
+     * overwritten slots count as older, which at worst widens the range; matches() has the final word.
+     */
+    private long firstAtOrAfter(long millis, long low, long high) {
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            Slot slot = slots.get(slotIndex(middle));
+            if (slot == null || slot.sequence != middle || slot.createdMillis < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long parseCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private record Slot(long sequence, long createdMillis, RequestLog log) {
+    }
+}
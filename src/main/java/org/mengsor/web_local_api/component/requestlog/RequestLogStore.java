@@ -0,0 +1,342 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.enums.FsyncPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Append-only request log on disk, so logs survive a restart. Logs go into numbered segment files under
+ * {@code request.log.cache.path}; each record is {@code [length][crc32][payload]} with the payload written
+ * by RequestLogCodec. The writer thread appends a whole batch with one write and forces it to disk
+ * according to the fsync policy. A segment is closed once it reaches the segment size and a new one is
+ * started, also on every startup, so a torn tail is never appended to. Only the newest segments are kept,
+ * and segments older than the maximum age are deleted.
+ */
+@Slf4j
+@Component
+public class RequestLogStore implements AutoCloseable {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final String DEFAULT_DIRECTORY = "request-logs";
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int maxSegments;
+    private final long maxAgeMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel active;
+    private long activeSize;
+    private long nextIndex;
+    private long lastSyncNanos = System.nanoTime();
+
+    public RequestLogStore(@Value("${request.log.cache.path}") String path,
+                           @Value("${request.log.segment-size:8MB}") DataSize segmentSize,
+                           @Value("${request.log.fsync:INTERVAL}") FsyncPolicy fsyncPolicy,
+                           @Value("${request.log.fsync-interval:1s}") Duration fsyncInterval,
+                           @Value("${request.log.retention.max-segments:16}") int maxSegments,
+                           @Value("${request.log.max-age:24h}") Duration maxAge) {
+        if (segmentSize.toBytes() <= 0 || maxSegments <= 0) {
+            throw new IllegalArgumentException("Request log segment size and max segments must be greater than 0");
+        }
+        this.directory = resolveDirectory(path);
+        this.segmentBytes = segmentSize.toBytes();
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.maxSegments = maxSegments;
+        this.maxAgeMillis = maxAge.toMillis();
+
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            nextIndex = segments.isEmpty() ? 1 : index(segments.get(segments.size() - 1)) + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open request log directory " + directory, e);
+        }
+        enforceRetention();
+    }
+
+    /**
+     * Reads the newest logs back, stopping at a torn or corrupt record in a segment.
+     *
+     * @param limit the most logs to return
+     * @return the logs, oldest first
+     */
+    public List<RequestLog> replay(int limit) {
+        lock.lock();
+        try {
+            Deque<RequestLog> logs = new ArrayDeque<>();
+            List<Path> segments = segments();
+            for (int i = segments.size() - 1; i >= 0 && logs.size() < limit; i--) {
+                List<RequestLog> segment = readSegment(segments.get(i));
+                for (int j = segment.size() - 1; j >= 0 && logs.size() < limit; j--) {
+                    logs.addFirst(segment.get(j));
+                }
+            }
+            log.info("Replayed {} request logs from {}", logs.size(), directory);
+            return new ArrayList<>(logs);
+        } catch (IOException e) {
+            log.error("Failed to replay request logs from {}", directory, e);
+            return List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a batch, one write per segment it lands in. Failures are logged; the logs stay in memory.
+     */
+    public void append(List<RequestLog> batch) {
+        if (batch.isEmpty()) return;
+
+        lock.lock();
+        try {
+            RecordWriter records = new RecordWriter();
+            for (RequestLog log : batch) {
+                if (active == null || activeSize > 0 && activeSize + records.size() >= segmentBytes) {
+                    write(records);
+                    rotate();
+                }
+                records.add(log);
+            }
+            write(records);
+            sync(false);
+        } catch (IOException e) {
+            log.error("Failed to write {} request logs to {}", batch.size(), directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes every segment; the next append starts a new one.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            closeActive();
+            for (Path segment : segments()) {
+                Files.deleteIfExists(segment);
+            }
+        } catch (IOException e) {
+            log.error("Failed to delete request log segments in {}", directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closeActive();
+        } catch (IOException e) {
+            log.warn("Failed to close request log segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Older configurations point request.log.cache.path at a single YAML file; use a directory next to it.
+     */
+    private static Path resolveDirectory(String path) {
+        Path configured = Paths.get(path).toAbsolutePath().normalize();
+        String name = configured.getFileName().toString();
+        if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+            return configured.resolveSibling(DEFAULT_DIRECTORY);
+        }
+        return configured;
+    }
+
+    private void write(RecordWriter records) throws IOException {
+        if (records.size() == 0) return;
+        ByteBuffer buffer = records.drain();
+        while (buffer.hasRemaining()) {
+            activeSize += active.write(buffer);
+        }
+    }
+
+    private List<RequestLog> readSegment(Path segment) throws IOException {
+        List<RequestLog> logs = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        log.warn("Corrupt record in {} after {} logs, skipping the rest", segment, logs.size());
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break; // end of segment, or a batch that was only partly written
+                }
+
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Checksum mismatch in {} after {} logs, skipping the rest", segment, logs.size());
+                    break;
+                }
+                try {
+                    logs.add(RequestLogCodec.read(new DataInputStream(new ByteArrayInputStream(payload))));
+                } catch (IOException e) {
+                    log.warn("Unreadable record in {} after {} logs, skipping the rest: {}",
+                            segment, logs.size(), e.toString());
+                    break;
+                }
+            }
+        }
+        return logs;
+    }
+
+    private void rotate() throws IOException {
+        closeActive();
+        Path segment = directory.resolve(String.format("%s%012d%s", PREFIX, nextIndex++, SUFFIX));
+        active = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeSize = 0;
+        enforceRetention();
+    }
+
+    private void sync(boolean force) throws IOException {
+        if (active == null) return;
+        long now = System.nanoTime();
+        boolean due = switch (fsyncPolicy) {
+            case NEVER -> false;
+            case BATCH -> true;
+            case INTERVAL -> now - lastSyncNanos >= fsyncIntervalNanos;
+        };
+        if (force || due) {
+            active.force(false);
+            lastSyncNanos = now;
+        }
+    }
+
+    private void closeActive() throws IOException {
+        if (active == null) return;
+        try {
+            if (fsyncPolicy != FsyncPolicy.NEVER) sync(true);
+        } finally {
+            active.close();
+            active = null;
+        }
+    }
+
+    /**
+     * Keeps the newest {@code maxSegments} segments and drops older ones whose last write is past the
+     * maximum age. The active segment is never deleted.
+     */
+    private void enforceRetention() {
+        try {
+            List<Path> segments = segments();
+            long oldest = maxAgeMillis > 0 ? System.currentTimeMillis() - maxAgeMillis : Long.MIN_VALUE;
+            int excess = segments.size() - maxSegments;
+            // the newest segment is the active one, or the one to replay first
+            for (int i = 0; i < segments.size() - 1; i++) {
+                Path segment = segments.get(i);
+                if (i < excess || Files.getLastModifiedTime(segment).toMillis() < oldest) {
+                    Files.deleteIfExists(segment);
+                    log.debug("Deleted request log segment {}", segment);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to apply request log retention in {}", directory, e);
+        }
+    }
+
+    /**
+     * @return the segment files, oldest first
+     */
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(RequestLogStore::isSegment)
+                    .sorted((a, b) -> Long.compare(index(a), index(b)))
+                    .toList();
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX) && index(path) >= 0;
+    }
+
+    private static long index(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Collects framed records for the next write.
+     */
+    private static final class RecordWriter {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream(1024);
+        private final DataOutputStream recordOut = new DataOutputStream(record);
+        private final CRC32 crc = new CRC32();
+
+        void add(RequestLog log) throws IOException {
+            record.reset();
+            RequestLogCodec.write(recordOut, log);
+            byte[] payload = record.toByteArray();
+            crc.reset();
+            crc.update(payload);
+            out.writeInt(payload.length);
+            out.writeInt((int) crc.getValue());
+            out.write(payload);
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        ByteBuffer drain() {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            bytes.reset();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Ascending list of ring sequence numbers, one per index key. New sequences are added at the tail and the
+ * oldest are removed from the head when the ring overwrites them, so it works as a growable circular deque.
+ */
+final class SequenceList {
+
+    private long[] values = new long[4];
+    private int head;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int position) {
+        return values[(head + position) % values.length];
+    }
+
+    void add(long sequence) {
+        if (size == values.length) {
+            grow();
+        }
+        // appends come in order; step back only if a concurrent producer published out of order
+        int position = size;
+        while (position > 0 && get(position - 1) > sequence) {
+            values[(head + position) % values.length] = get(position - 1);
+            position--;
+        }
+        values[(head + position) % values.length] = sequence;
+        size++;
+    }
+
+    /**
+     * Removes the sequence and anything older. The ring evicts in sequence order, so whatever is older
+     * than an evicted sequence is gone too.
+     */
+    void removeThrough(long sequence) {
+        while (size > 0 && values[head] <= sequence) {
+            head = (head + 1) % values.length;
+            size--;
+        }
+    }
+
+    /**
+     * @return the number of sequences below the bound, i.e. the position to start a descending walk from
+     */
+    int countBelow(long bound) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (get(middle) < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copies the largest sequences below the bound, newest first, so a caller can walk them without the lock.
+     *
+     * @return the number of sequences copied, at most {@code into.length}
+     */
+    int copyBelow(long bound, long[] into) {
+        int position = countBelow(bound);
+        int count = Math.min(position, into.length);
+        for (int i = 0; i < count; i++) {
+            into[i] = get(position - 1 - i);
+        }
+        return count;
+    }
+
+    private void grow() {
+        long[] grown = new long[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+        values = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,93 @@
+package org.mengsor.web_local_api.component.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.model.ApiConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * In-memory route table used by /query.api dispatch. Config URLs are compiled into a {@link RouteTrie},
+ * so they may contain path templates such as {@code v1/users/{id}/orders/*}. The whole trie is rebuilt and
+ * republished whenever the API configs change, so lookups never touch the YAML cache file.
+ * Each config is compiled into a {@link CompiledStub} once; configs that did not change between two
+ * snapshots are the same instances and reuse their compiled stub.
+ */
+@Slf4j
+@Component
+public class ApiRouteTable {
+
+    /** Request attribute holding the {@code Map<String, String>} of captured path variables. */
+    public static final String PATH_VARIABLES_ATTRIBUTE = ApiRouteTable.class.getName() + ".pathVariables";
+
+    private static final String API_PREFIX = "/query.api/";
+
+    private final StubCompiler stubCompiler;
+    private volatile RouteTrie<CompiledStub> routes = new RouteTrie<CompiledStub>().freeze();
+    private volatile Map<ApiConfig, CompiledStub> compiled = Collections.emptyMap();
+
+    public ApiRouteTable(StubCompiler stubCompiler) {
+        this.stubCompiler = stubCompiler;
+    }
+
+    /**
+     * Rebuilds the route table from the given configs and publishes it atomically.
+     * The first config registered for a route shape wins, like the previous linear scan did.
+     *
+     * @param configs the full list of API configs
+     */
+    public void rebuild(List<ApiConfig> configs) {
+        RouteTrie<CompiledStub> trie = new RouteTrie<>();
+        Map<ApiConfig, CompiledStub> previous = this.compiled;
+        Map<ApiConfig, CompiledStub> current = new IdentityHashMap<>(configs.size() * 2);
+
+        for (ApiConfig config : configs) {
+            if (config.getMethod() == null || config.getUrl() == null) continue;
+            try {
+                CompiledStub stub = previous.get(config);
+                if (stub == null) stub = stubCompiler.compile(config);
+                current.put(config, stub);
+
+                if (!trie.add(config.getMethod(), config.getUrl(), stub)) {
+                    log.warn("Duplicate route ignored: {} {}", config.getMethod(), config.getUrl());
+                }
+            } catch (IllegalArgumentException e) {
+                log.error("Invalid API config ignored: {} {}", config.getMethod(), config.getUrl(), e);
+            }
+        }
+        this.routes = trie.freeze();
+        this.compiled = current;
+        log.info("Route table rebuilt with {} routes", trie.size());
+    }
+
+    /**
+     * Finds the compiled stub whose template matches the given method and path.
+     *
+     * @param method the HTTP method
+     * @param path the path relative to /query.api/
+     * @return the match with captured path variables, or null when nothing is registered
+     */
+    public RouteMatch<CompiledStub> lookup(String method, String path) {
+        return routes.match(method, path);
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * Strips everything up to and including "/query.api/" from a request URI.
+     *
+     * @param requestUri the raw request URI
+     * @return the path relative to /query.api/, or the URI itself if it is not under /query.api/
+     */
+    public static String extractApiPath(String requestUri) {
+        int index = requestUri.indexOf(API_PREFIX);
+        return index < 0 ? requestUri : requestUri.substring(index + API_PREFIX.length());
+    }
+}
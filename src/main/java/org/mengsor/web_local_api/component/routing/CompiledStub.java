@@ -0,0 +1,23 @@
+package org.mengsor.web_local_api.component.routing;
+
+import org.mengsor.web_local_api.component.latency.ResponseTiming;
+import org.mengsor.web_local_api.component.matcher.BodyMatcher;
+import org.mengsor.web_local_api.model.ApiConfig;
+import org.mengsor.web_local_api.model.response.EncodedBody;
+import org.mengsor.web_local_api.model.response.FileBody;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * An ApiConfig together with everything that can be prepared once when the config is saved or loaded,
+ * so the request path only has to process the incoming request.
+ *
+ * @param config the source config
+ * @param requestMatcher the compiled request body template
+ * @param response the response body, already encoded with its Content-Type
+ * @param file the response file when the config has a bodyFile, served instead of {@code response}; otherwise null
+ * @param timing the simulated latency and bandwidth
+ */
+public record CompiledStub(ApiConfig config, BodyMatcher requestMatcher, EncodedBody response, FileBody file,
+                           ResponseTiming timing) {
+}
@@ -0,0 +1,11 @@
+package org.mengsor.web_local_api.component.routing;
+
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Result of a route lookup: the registered value and the path variables captured from the request path.
+ */
+public record RouteMatch<T>(T value, Map<String, String> pathVariables) {
+}
@@ -0,0 +1,190 @@
+package org.mengsor.web_local_api.component.routing;
+
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Prefix trie over path segments, one root per HTTP method. Supported template segments:
+ * <ul>
+ *     <li>{@code literal} - case-insensitive exact segment</li>
+ *     <li>{@code {name}} - exactly one segment, captured as a path variable</li>
+ *     <li>{@code *} - exactly one segment, not captured</li>
+ *     <li>{@code **} - the remaining segments (zero or more), only allowed as the last segment</li>
+ * </ul>
+ * Matching descends segment by segment and tries the literal child, then the variable, then {@code *},
+ * backtracking when a branch fails further down; literals win over variables, variables over {@code *},
+ * and {@code *} over {@code **}. Every node has one parent, so a lookup visits each node at most once.
+ * Without overlapping templates that is a single walk of the path. In the worst case it visits every node
+ * up to the path's depth, which is bounded by the total number of segments of the registered templates.
+ * Instances are built once and never modified after {@link #freeze()}, so they can be shared between threads.
+ */
+public class RouteTrie<T> {
+
+    private static final String MULTI_WILDCARD = "**";
+    private static final String SINGLE_WILDCARD = "*";
+
+    private final Map<String, Node<T>> roots = new HashMap<>();
+    private boolean frozen;
+    private int size;
+
+    /**
+     * Registers a template. If a route with the same shape already exists the first one is kept.
+     *
+     * @param method the HTTP method
+     * @param template the path template relative to /query.api/
+     * @param value the value returned when the template matches
+     * @return true if the route was added, false if an equivalent route was already registered
+     */
+    public boolean add(String method, String template, T value) {
+        if (frozen) throw new IllegalStateException("Route trie is frozen");
+
+        List<String> segments = split(template);
+        Node<T> node = roots.computeIfAbsent(method.toUpperCase(Locale.ROOT), m -> new Node<>());
+        List<String> variableNames = new ArrayList<>();
+
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+
+            if (MULTI_WILDCARD.equals(segment)) {
+                if (i != segments.size() - 1) {
+                    throw new IllegalArgumentException("'**' is only allowed as the last segment: " + template);
+                }
+                if (node.remainder != null) return false;
+                node.remainder = new Route<>(value, variableNames.toArray(String[]::new));
+                size++;
+                return true;
+            }
+
+            if (SINGLE_WILDCARD.equals(segment)) {
+                if (node.wildcard == null) node.wildcard = new Node<>();
+                node = node.wildcard;
+            } else if (segment.length() > 2 && segment.startsWith("{") && segment.endsWith("}")) {
+                variableNames.add(segment.substring(1, segment.length() - 1));
+                if (node.variable == null) node.variable = new Node<>();
+                node = node.variable;
+            } else {
+                node = node.literals.computeIfAbsent(segment.toLowerCase(Locale.ROOT), s -> new Node<>());
+            }
+        }
+
+        if (node.route != null) return false;
+        node.route = new Route<>(value, variableNames.toArray(String[]::new));
+        size++;
+        return true;
+    }
+
+    public RouteTrie<T> freeze() {
+        this.frozen = true;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Matches a concrete request path against the registered templates.
+     *
+     * @param method the HTTP method
+     * @param path the path relative to /query.api/
+     * @return the match with its captured path variables, or null when nothing matches
+     */
+    public RouteMatch<T> match(String method, String path) {
+        Node<T> root = roots.get(method.toUpperCase(Locale.ROOT));
+        if (root == null) return null;
+
+        List<String> segments = split(path);
+        String[] captured = new String[segments.size()];
+        return match(root, segments, 0, captured, 0);
+    }
+
+    private RouteMatch<T> match(Node<T> node, List<String> segments, int index,
+                                String[] captured, int capturedCount) {
+
+        if (index == segments.size()) {
+            if (node.route != null) return node.route.toMatch(captured, capturedCount);
+            if (node.remainder != null) return node.remainder.toMatch(captured, capturedCount);
+            return null;
+        }
+
+        String segment = segments.get(index);
+
+        Node<T> literal = node.literals.get(lowerCase(segment));
+        if (literal != null) {
+            RouteMatch<T> match = match(literal, segments, index + 1, captured, capturedCount);
+            if (match != null) return match;
+        }
+
+        if (node.variable != null) {
+            captured[capturedCount] = segment;
+            RouteMatch<T> match = match(node.variable, segments, index + 1, captured, capturedCount + 1);
+            if (match != null) return match;
+        }
+
+        if (node.wildcard != null) {
+            RouteMatch<T> match = match(node.wildcard, segments, index + 1, captured, capturedCount);
+            if (match != null) return match;
+        }
+
+        if (node.remainder != null) return node.remainder.toMatch(captured, capturedCount);
+        return null;
+    }
+
+    /**
+     * Splits a path on '/', ignoring empty segments, without using regular expressions.
+     */
+    static List<String> split(String path) {
+        if (path == null || path.isEmpty()) return Collections.emptyList();
+
+        List<String> segments = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i > start) segments.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    private static String lowerCase(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isUpperCase(segment.charAt(i))) return segment.toLowerCase(Locale.ROOT);
+        }
+        return segment;
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> literals = new HashMap<>(4);
+        private Node<T> variable;
+        private Node<T> wildcard;
+        private Route<T> route;
+        private Route<T> remainder;
+    }
+
+    private record Route<T>(T value, String[] variableNames) {
+
+        RouteMatch<T> toMatch(String[] captured, int capturedCount) {
+            if (variableNames.length == 0) return new RouteMatch<>(value, Collections.emptyMap());
+
+            Map<String, String> variables = new LinkedHashMap<>(variableNames.length * 2);
+            for (int i = 0; i < variableNames.length && i < capturedCount; i++) {
+                String raw = captured[i];
+                variables.put(variableNames[i],
+                        raw.indexOf('%') >= 0 ? UriUtils.decode(raw, StandardCharsets.UTF_8) : raw);
+            }
+            return new RouteMatch<>(value, Collections.unmodifiableMap(variables));
+        }
+    }
+}
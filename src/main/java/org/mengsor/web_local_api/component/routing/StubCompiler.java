@@ -0,0 +1,46 @@
+package org.mengsor.web_local_api.component.routing;
+
+import org.mengsor.web_local_api.component.BodyFileResolver;
+import org.mengsor.web_local_api.component.latency.ResponseTiming;
+import org.mengsor.web_local_api.component.matcher.BodyMatchers;
+import org.mengsor.web_local_api.model.ApiConfig;
+import org.mengsor.web_local_api.model.response.EncodedBody;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Turns an ApiConfig into a {@link CompiledStub}. Called only when configs are loaded or saved, so this is
+ * where the response body is encoded and compressed.
+ */
+@Component
+public class StubCompiler {
+
+    private final BodyMatchers bodyMatchers;
+    private final BodyFileResolver bodyFileResolver;
+    private final int compressionMinSize;
+
+    public StubCompiler(BodyMatchers bodyMatchers, BodyFileResolver bodyFileResolver,
+                        @Value("${query.api.compression.min-size:1024}") int compressionMinSize) {
+        this.bodyMatchers = bodyMatchers;
+        this.bodyFileResolver = bodyFileResolver;
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    public CompiledStub compile(ApiConfig config) {
+        if (config.getBodyFile() != null && !config.getBodyFile().isBlank()) {
+            // the file is streamed on every request, nothing of it is kept in memory
+            return new CompiledStub(config,
+                    bodyMatchers.compile(config.getRequestBody()),
+                    EncodedBody.EMPTY,
+                    bodyFileResolver.resolve(config.getBodyFile()),
+                    ResponseTiming.of(config));
+        }
+        return new CompiledStub(config,
+                bodyMatchers.compile(config.getRequestBody()),
+                EncodedBody.precompressed(config.getResponseBody(), compressionMinSize),
+                null,
+                ResponseTiming.of(config));
+    }
+}
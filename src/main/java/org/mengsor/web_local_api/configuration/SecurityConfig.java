@@ -2,7 +2,6 @@ package org.mengsor.web_local_api.configuration;
 
 import org.mengsor.web_local_api.component.DynamicAuthenticationProvider;
 import org.mengsor.web_local_api.component.DynamicAuthorizationManager;
-import org.mengsor.web_local_api.model.SettingCache;
 import org.mengsor.web_local_api.model.enums.SecurityMode;
 import org.mengsor.web_local_api.security.apikey.ApiKeyFilter;
 import org.mengsor.web_local_api.services.SettingCacheService;
@@ -12,6 +11,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
@@ -29,20 +29,22 @@ public class SecurityConfig {
     private final SettingCacheService settingCacheService;
     private final DynamicAuthenticationProvider authProvider;
     private final DynamicAuthorizationManager authorizationManager;
+    private final JwtDecoder jwtDecoder;
 
     public SecurityConfig(@Lazy DynamicAuthenticationProvider authProvider,
                           @Lazy DynamicAuthorizationManager authorizationManager,
-                          SettingCacheService settingCacheService) {
+                          SettingCacheService settingCacheService,
+                          JwtDecoder jwtDecoder) {
         this.authProvider = authProvider;
         this.authorizationManager = authorizationManager;
         this.settingCacheService = settingCacheService;
+        this.jwtDecoder = jwtDecoder;
     }
 
     @Bean
     SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 
-        SettingCache cache = settingCacheService.load();
-        SecurityMode mode = cache.getSecurityMode() != null ? cache.getSecurityMode() : SecurityMode.NONE;
+        SecurityMode mode = settingCacheService.snapshot().securityMode();
 
         http
                 .securityMatcher(new NegatedRequestMatcher(
@@ -65,7 +67,7 @@ public class SecurityConfig {
                         .anyRequest().permitAll()
                 )
                 .httpBasic(Customizer.withDefaults()).authenticationProvider(authProvider)
-                .oauth2ResourceServer(oauth -> oauth.jwt(Customizer.withDefaults()))
+                .oauth2ResourceServer(oauth -> oauth.jwt(jwt -> jwt.decoder(jwtDecoder)))
                 .addFilterBefore(new ApiKeyFilter(settingCacheService), BasicAuthenticationFilter.class);
 
 //        // Enable BASIC auth if active
@@ -0,0 +1,47 @@
+package org.mengsor.web_local_api.configuration.until;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Compresses byte arrays for the HTTP gzip and deflate content codings.
+ * "deflate" is the zlib format (RFC 1950), as HTTP defines it, not raw deflate.
+ */
+public class CompressionUtil {
+
+    private CompressionUtil() {
+    }
+
+    public static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Gzip compression failed", e);
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] deflate(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+            deflate.write(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Deflate compression failed", e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,33 +1,127 @@
 package org.mengsor.web_local_api.controller;
 
+import jakarta.servlet.AsyncContext;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.component.FileBodyWriter;
+import org.mengsor.web_local_api.component.latency.BodySource;
+import org.mengsor.web_local_api.component.latency.ResponseScheduler;
+import org.mengsor.web_local_api.component.latency.ResponseTiming;
+import org.mengsor.web_local_api.configuration.StubExecutionConfig;
+import org.mengsor.web_local_api.model.request.ServletStubRequest;
 import org.mengsor.web_local_api.model.response.ApiResponse;
+import org.mengsor.web_local_api.model.response.EncodedBody;
+import org.mengsor.web_local_api.model.response.FileBody;
 import org.mengsor.web_local_api.services.DynamicApiService;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+@Slf4j
 @RestController
 @RequestMapping("/query.api")
 public class DynamicApiController {
 
     private final DynamicApiService dynamicApiService;
+    private final FileBodyWriter fileBodyWriter;
+    private final ResponseScheduler responseScheduler;
+    // set when query.api.virtual-threads.enabled=true
+    private final ExecutorService stubExecutor;
 
-    public DynamicApiController(DynamicApiService dynamicApiService) {
+    public DynamicApiController(DynamicApiService dynamicApiService, FileBodyWriter fileBodyWriter,
+                                ResponseScheduler responseScheduler,
+                                @Qualifier(StubExecutionConfig.STUB_EXECUTOR) ObjectProvider<ExecutorService> stubExecutor) {
         this.dynamicApiService = dynamicApiService;
+        this.fileBodyWriter = fileBodyWriter;
+        this.responseScheduler = responseScheduler;
+        this.stubExecutor = stubExecutor.getIfAvailable();
     }
 
     @RequestMapping(value = "/**",
             method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
-    public ResponseEntity<String> execute(
+    public void execute(
             HttpServletRequest request,
-            @RequestBody(required = false) String requestBody) {
+            HttpServletResponse servletResponse,
+            @RequestBody(required = false) String requestBody) throws IOException {
+
+        if (stubExecutor == null) {
+            respond(request, servletResponse, requestBody);
+            return;
+        }
+
+        // virtual-thread mode: free the Tomcat worker and finish the request on a virtual thread
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0);
+        stubExecutor.execute(() -> {
+            boolean handedOver = false;
+            try {
+                handedOver = respond(request, servletResponse, requestBody);
+            } catch (Exception e) {
+                log.error("Stub request failed: {} {}", request.getMethod(), request.getRequestURI(), e);
+                if (!servletResponse.isCommitted()) {
+                    servletResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            } finally {
+                if (!handedOver) async.complete();
+            }
+        });
+    }
+
+    /**
+     * Runs the stub and writes its response.
+     *
+     * @return true if the ResponseScheduler took over the response and will complete it
+     */
+    private boolean respond(HttpServletRequest request, HttpServletResponse servletResponse,
+                            String requestBody) throws IOException {
+
+        ApiResponse response = dynamicApiService.handleRequest(new ServletStubRequest(request), requestBody);
+        ResponseTiming timing = response.getTiming() != null ? response.getTiming() : ResponseTiming.NONE;
+
+        if (response.getFileBody() != null) {
+            FileBody file = response.getFileBody();
+            FileBodyWriter.ByteRange range = fileBodyWriter.prepare(request, servletResponse, file, response.getStatus());
+            if (range == null) return false;
+
+            if (timing.isImmediate()) {
+                fileBodyWriter.transfer(request, servletResponse, file, range);
+                return false;
+            }
+            responseScheduler.send(request, timing.nextDelayMillis(), timing.bytesPerSecond(),
+                    BodySource.of(file.path(), range.start(), range.count()));
+            return true;
+        }
+
+        EncodedBody body = response.getEncodedBody();
+        if (body == null) {
+            body = EncodedBody.of(response.getResponseBody() != null ? response.getResponseBody() : response.getMessage());
+        }
 
-        ApiResponse response = dynamicApiService.handleRequest(request, requestBody);
+        // stub bodies are encoded and compressed when the stub is compiled; write the shared bytes as they are
+        EncodedBody.Variant variant = body.select(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        servletResponse.setStatus(response.getStatus());
+        servletResponse.setContentType(body.contentType());
+        if (body.hasVariants()) {
+            servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (variant.contentEncoding() != null) {
+            servletResponse.setHeader(HttpHeaders.CONTENT_ENCODING, variant.contentEncoding());
+        }
+        servletResponse.setContentLength(variant.bytes().length);
 
-        return ResponseEntity.status(response.getStatus()).contentType(MediaType.APPLICATION_XML)
-                .contentLength(response.getResponseBody() != null ? response.getResponseBody().length() : 0)
-                .body(response.getResponseBody() != null ? response.getResponseBody() : response.getMessage());
+        if (timing.isImmediate()) {
+            servletResponse.getOutputStream().write(variant.bytes());
+            return false;
+        }
+        // delayed and throttled responses are finished by the scheduler, not by this thread
+        responseScheduler.send(request, timing.nextDelayMillis(), timing.bytesPerSecond(),
+                BodySource.of(variant.bytes()));
+        return true;
     }
 
     @GetMapping("/health")
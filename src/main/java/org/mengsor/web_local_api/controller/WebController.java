@@ -2,22 +2,33 @@ package org.mengsor.web_local_api.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.component.RequestMismatchReporter;
 import org.mengsor.web_local_api.configuration.until.CryptoUtil;
 import org.mengsor.web_local_api.model.ApiConfig;
 import org.mengsor.web_local_api.model.CreateNewApi;
 import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.RequestLogQuery;
 import org.mengsor.web_local_api.model.SettingCache;
 import org.mengsor.web_local_api.model.enums.SecurityMode;
 import org.mengsor.web_local_api.model.enums.TokenUnit;
+import org.mengsor.web_local_api.model.response.RequestLogPage;
+import org.mengsor.web_local_api.model.response.RequestLogSummary;
+import org.mengsor.web_local_api.model.response.SigningKeyInfo;
+import org.mengsor.web_local_api.security.oauth.SigningKeyStore;
 import org.mengsor.web_local_api.security.oauth.util.OAuthClientUtil;
 import org.mengsor.web_local_api.services.ApiConfigService;
 import org.mengsor.web_local_api.services.CreateNewApiService;
 import org.mengsor.web_local_api.services.RequestLogService;
 import org.mengsor.web_local_api.services.SettingCacheService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -34,6 +45,8 @@ public class WebController {
     private final ApiConfigService apiConfigService;
     private final RequestLogService requestLogService;
     private final SettingCacheService settingCacheService;
+    private final RequestMismatchReporter mismatchReporter;
+    private final SigningKeyStore signingKeyStore;
 
     @GetMapping("/home")
     public String home(Model model) {
@@ -127,6 +140,12 @@ public class WebController {
             model.addAttribute("config", config);
             model.addAttribute("serverPort", serverPort);
             model.addAttribute("toastError", e.getMessage());
+        } catch (IllegalStateException e) {
+            // Concurrent edit (stale version)
+            log.warn("Concurrent edit rejected: {}", e.getMessage());
+            model.addAttribute("config", config);
+            model.addAttribute("serverPort", serverPort);
+            model.addAttribute("toastError", e.getMessage());
         } catch (Exception e) {
             // Unexpected error
             log.error("Failed to save API Config: {}", e.getMessage());
@@ -146,30 +165,50 @@ public class WebController {
         return "All API configs cleared";
     }
 
-    // Show all logs and optionally select one
+    // Show one log; the list is loaded page by page from /request-log/logs
     @GetMapping("/request-log")
     public String viewLogs(@RequestParam(value = "id", required = false) String id, Model model) {
-        List<RequestLog> logs = requestLogService.getAllLogs();
         RequestLog selectedLog = null;
 
         if (id != null) {
             selectedLog = requestLogService.getLogById(id);
-        } else if (!logs.isEmpty()) {
+        } else {
             // Default: select latest log
-            selectedLog = logs.get(logs.size() - 1);
+            List<RequestLogSummary> latest = requestLogService.queryLogs(RequestLogQuery.builder().limit(1).build()).items();
+            if (!latest.isEmpty()) {
+                selectedLog = requestLogService.getLogById(latest.get(0).id());
+            }
+        }
+
+        if (selectedLog != null) {
+            // rendered on first view and kept with the log
+            mismatchReporter.nonMatchReport(selectedLog);
         }
 
-        model.addAttribute("logs", logs);
         model.addAttribute("activePage", "request-log");
         model.addAttribute("selectedLog", selectedLog);
 
         return "request-log"; // Thymeleaf template name
     }
 
-    // Refresh logs (redirect to GET)
-    @PostMapping("/request-log/refresh")
-    public String refreshLogs(Model model) {
-        return "redirect:/page/request-log";
+    // One page of logs, newest first, e.g. ?method=POST&matchStatus=UNMATCHED&limit=50&cursor=...
+    @GetMapping("/request-log/logs")
+    @ResponseBody
+    public RequestLogPage queryLogs(@ModelAttribute RequestLogQuery query) {
+        return requestLogService.queryLogs(query);
+    }
+
+    // Live tail: "log" events matching the filters, "dropped" when the client lags; 503 + Retry-After when at the limit
+    @GetMapping(value = "/request-log/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLogs(@ModelAttribute RequestLogQuery filter) {
+        try {
+            return ResponseEntity.ok(requestLogService.tailLogs(filter));
+        } catch (IllegalStateException e) {
+            log.debug("Request log stream refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
     }
 
     // Clear all logs
@@ -190,6 +229,7 @@ public class WebController {
                 cache.getPassword() == null || cache.getPassword().isEmpty() ? "" : "********");
         model.addAttribute("settingCache", cache);
         model.addAttribute("serverPort", serverPort);
+        model.addAttribute("signingKey", SigningKeyInfo.of(signingKeyStore.activeKey()));
 
         return "setting";
     }
@@ -214,6 +254,7 @@ public class WebController {
         model.addAttribute("serverPort", serverPort);
         model.addAttribute("username", form.getUsername());
         model.addAttribute("password", form.getPassword());
+        model.addAttribute("signingKey", SigningKeyInfo.of(signingKeyStore.activeKey()));
         model.addAttribute("message", "Saved successfully");
 
         return "setting";
@@ -243,4 +284,13 @@ public class WebController {
 
         return cache; // return updated cache
     }
+
+    /**
+     * Replaces the token signing key. Tokens signed with the previous key stay valid until they expire.
+     */
+    @PostMapping("/setting/keys/rotate")
+    @ResponseBody
+    public SigningKeyInfo rotateSigningKey() {
+        return SigningKeyInfo.of(signingKeyStore.rotate());
+    }
 }
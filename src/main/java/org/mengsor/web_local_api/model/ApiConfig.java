@@ -3,6 +3,7 @@ package org.mengsor.web_local_api.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.mengsor.web_local_api.model.enums.DelayMode;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +31,30 @@ public class ApiConfig {
     private String protocol;
     private int statusCode;
 
+    private Long version;      // optimistic lock, incremented on every save
+
+    private String bodyFile;   // optional, relative to skyvva.home; served instead of responseBody
+
+    private DelayMode delayMode = DelayMode.NONE;
+    private Long delayMs;                 // FIXED: delay, UNIFORM: minimum, LOG_NORMAL: median
+    private Long delayMaxMs;              // UNIFORM: maximum, LOG_NORMAL: cap
+    private Double delaySigma;            // LOG_NORMAL: shape
+    private Long throttleBytesPerSecond;  // empty or 0: unlimited
+
+    /**
+     * Creates a detached copy, so callers can modify it without touching the shared snapshot.
+     */
+    public ApiConfig copy() {
+        return new ApiConfig(id, name, url, method,
+                new ArrayList<>(headers != null ? headers : List.of()),
+                new ArrayList<>(responseHeaders != null ? responseHeaders : List.of()),
+                new ArrayList<>(queries != null ? queries : List.of()),
+                new ArrayList<>(cookies != null ? cookies : List.of()),
+                requestFormat, responseFormat, requestBody, responseBody,
+                protocol, statusCode, version, bodyFile,
+                delayMode, delayMs, delayMaxMs, delaySigma, throttleBytesPerSecond);
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
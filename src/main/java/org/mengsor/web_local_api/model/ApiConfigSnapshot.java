@@ -0,0 +1,28 @@
+package org.mengsor.web_local_api.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Immutable, versioned view of all API configs. A new snapshot is built and published for every
+ * save/delete, so readers can use it without locking. The ApiConfig instances inside are shared
+ * and must be treated as read-only.
+ */
+public record ApiConfigSnapshot(long version, List<ApiConfig> configs, Map<Long, ApiConfig> byId) {
+
+    public static final ApiConfigSnapshot EMPTY = new ApiConfigSnapshot(0, List.of(), Map.of());
+
+    public static ApiConfigSnapshot of(long version, List<ApiConfig> configs) {
+        Map<Long, ApiConfig> byId = new LinkedHashMap<>();
+        for (ApiConfig config : configs) {
+            if (config.getId() != null) byId.putIfAbsent(config.getId(), config);
+        }
+        return new ApiConfigSnapshot(version,
+                Collections.unmodifiableList(List.copyOf(configs)),
+                Collections.unmodifiableMap(byId));
+    }
+}
@@ -3,6 +3,7 @@ package org.mengsor.web_local_api.model;
 import lombok.Data;
 import org.mengsor.web_local_api.model.enums.MatchStatus;
 
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -18,8 +19,14 @@ public class RequestLog {
     private int status;
     private long duration;
     private String timestamp;
+    private long epochMillis;
     private Map<String, String> headers;
-    private String nonMatchReport;
+    // rendered from the fields below the first time the log is viewed, see RequestMismatchReporter
+    private volatile String nonMatchReport;
+    // closest stub's method and path, and the header differences found when matching
+    private String stubMethod;
+    private String stubUrl;
+    private List<String> headerDiffs;
     private int statusCode;
     private String apiName;
 
@@ -0,0 +1,42 @@
+package org.mengsor.web_local_api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.mengsor.web_local_api.model.enums.MatchStatus;
+import org.mengsor.web_local_api.model.response.RequestLogSummary;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Filters and paging for request log queries. Every filter is optional; set filters must all match.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestLogQuery {
+    private String id;
+    private String apiName;
+    private String url;          // the full request path, e.g. /query.api/v1/users/1
+    private String method;
+    private MatchStatus matchStatus;
+    private Integer statusCode;
+    private Long from;           // epoch millis, inclusive
+    private Long to;             // epoch millis, exclusive
+    private String cursor;       // nextCursor of the previous page
+    private Integer limit;
+
+    /**
+     * @return true if the log passes every filter that is set; id, from and cursor are left to the caller
+     */
+    public boolean matches(RequestLog log) {
+        return (apiName == null || apiName.equals(log.getApiName()))
+                && (url == null || url.equals(log.getUrl()))
+                && (method == null || method.equalsIgnoreCase(log.getMethod()))
+                && (matchStatus == null || matchStatus == log.getMatchStatus())
+                && (statusCode == null || statusCode == RequestLogSummary.statusCode(log))
+                && (to == null || log.getEpochMillis() < to);
+    }
+}
@@ -0,0 +1,54 @@
+package org.mengsor.web_local_api.model;
+
+import org.mengsor.web_local_api.model.enums.SecurityMode;
+import org.mengsor.web_local_api.model.enums.TokenUnit;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Immutable view of the saved settings with the password already decrypted. SettingCacheService publishes
+ * a new snapshot with the next version on every save, so readers never touch the settings file and can
+ * key derived state on the version.
+ */
+public record SettingSnapshot(long version,
+                              SecurityMode securityMode,
+                              String username,
+                              String password,
+                              String clientId,
+                              String clientSecret,
+                              TokenUnit tokenUnit,
+                              Integer tokenDuration) {
+
+    public SettingSnapshot {
+        if (securityMode == null) {
+            securityMode = SecurityMode.NONE;
+        }
+    }
+
+    /**
+     * @param decrypted settings as read from the file, with the password decrypted
+     */
+    public static SettingSnapshot of(long version, SettingCache decrypted) {
+        return new SettingSnapshot(version,
+                decrypted.getSecurityMode(),
+                decrypted.getUsername(),
+                decrypted.getPassword(),
+                decrypted.getClientId(),
+                decrypted.getClientSecret(),
+                decrypted.getTokenUnit(),
+                decrypted.getTokenDuration());
+    }
+
+    /**
+     * @return a mutable copy for forms, password decrypted
+     */
+    public SettingCache toSettingCache() {
+        return new SettingCache(username, password, securityMode, clientId, clientSecret, tokenUnit, tokenDuration);
+    }
+
+    @Override
+    public String toString() {
+        return "SettingSnapshot[version=" + version + ", securityMode=" + securityMode + ", username=" + username
+                + ", clientId=" + clientId + "]";
+    }
+}
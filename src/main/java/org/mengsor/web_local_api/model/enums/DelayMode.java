@@ -0,0 +1,5 @@
+package org.mengsor.web_local_api.model.enums;
+
+public enum DelayMode {
+    NONE, FIXED, UNIFORM, LOG_NORMAL
+}
@@ -0,0 +1,5 @@
+package org.mengsor.web_local_api.model.enums;
+
+public enum FsyncPolicy {
+    NEVER, BATCH, INTERVAL
+}
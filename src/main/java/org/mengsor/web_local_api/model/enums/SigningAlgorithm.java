@@ -0,0 +1,5 @@
+package org.mengsor.web_local_api.model.enums;
+
+public enum SigningAlgorithm {
+    RS256, ES256, EdDSA
+}
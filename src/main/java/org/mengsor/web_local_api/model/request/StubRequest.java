@@ -0,0 +1,40 @@
+package org.mengsor.web_local_api.model.request;
+
+import java.util.Map;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * The parts of an incoming /query.api request that stub matching and request logging look at.
+ * Lets the same pipeline run behind the servlet controller and the reactive engine.
+ */
+public interface StubRequest {
+
+    String method();
+
+    /**
+     * @return the raw request path, without the query string
+     */
+    String requestUri();
+
+    /**
+     * @return the first value of the header, null if absent; the name is case-insensitive
+     */
+    String header(String name);
+
+    /**
+     * @return the first value of every header, in the order they arrived
+     */
+    Map<String, String> headers();
+
+    Map<String, String[]> queryParams();
+
+    Map<String, String> cookies();
+
+    String remoteAddr();
+
+    /**
+     * Stores a value on the underlying request, e.g. the matched path variables.
+     */
+    void setAttribute(String name, Object value);
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.mengsor.web_local_api.component.latency.ResponseTiming;
 
 @Data
 @NoArgsConstructor
@@ -14,4 +15,14 @@ public class ApiResponse {
     private String message;
     private String responseBody;
     private int status;
+    // precompiled stub body, written as-is instead of encoding responseBody
+    private EncodedBody encodedBody;
+    // file-backed stub body, streamed from disk
+    private FileBody fileBody;
+    // simulated latency and bandwidth of the matched stub
+    private ResponseTiming timing;
+
+    public ApiResponse(boolean success, String message, String responseBody, int status) {
+        this(success, message, responseBody, status, null, null, null);
+    }
 }
@@ -0,0 +1,152 @@
+package org.mengsor.web_local_api.model.response;
+
+import org.mengsor.web_local_api.configuration.until.CompressionUtil;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * A response body that is already encoded: the UTF-8 bytes, the full Content-Type value (with charset)
+ * and therefore the exact Content-Length. Stub bodies are encoded once when the stub is compiled and the
+ * same array is written for every request, so it must never be modified.
+ * Stub bodies may also carry gzip and deflate variants, compressed at the same time; a variant is null
+ * when the body is too small or compression does not make it smaller.
+ */
+public record EncodedBody(byte[] bytes, String contentType, byte[] gzip, byte[] deflate) {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    public static final EncodedBody EMPTY = of("", MediaType.TEXT_PLAIN);
+
+    /**
+     * @param body the text to encode, null is treated as empty
+     * @param mediaType the media type, the UTF-8 charset is added to it
+     */
+    public static EncodedBody of(String body, MediaType mediaType) {
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        return new EncodedBody(bytes, contentType(mediaType), null, null);
+    }
+
+    /**
+     * Encodes a body whose media type is detected from its first character.
+     */
+    public static EncodedBody of(String body) {
+        return of(body, detectMediaType(body));
+    }
+
+    /**
+     * Encodes a body and precomputes its compressed variants.
+     *
+     * @param body the text to encode, null is treated as empty
+     * @param minSize bodies smaller than this many bytes are not compressed
+     */
+    public static EncodedBody precompressed(String body, int minSize) {
+        EncodedBody plain = of(body);
+        if (plain.length() < minSize) return plain;
+
+        byte[] gzip = CompressionUtil.gzip(plain.bytes);
+        byte[] deflate = CompressionUtil.deflate(plain.bytes);
+        return new EncodedBody(plain.bytes, plain.contentType,
+                gzip.length < plain.length() ? gzip : null,
+                deflate.length < plain.length() ? deflate : null);
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    public boolean hasVariants() {
+        return gzip != null || deflate != null;
+    }
+
+    /**
+     * Picks the representation to send for an Accept-Encoding header. Codings are ranked by their
+     * q-value; a compressed variant wins over identity on equal weight, and gzip wins over deflate.
+     * Identity is the fallback when nothing acceptable is available, even if it was excluded.
+     *
+     * @param acceptEncoding the request's Accept-Encoding header, may be null
+     * @return the chosen representation, identity when no acceptable variant exists
+     */
+    public Variant select(String acceptEncoding) {
+        Variant identity = new Variant(bytes, null);
+        if (!hasVariants() || acceptEncoding == null || acceptEncoding.isBlank()) return identity;
+
+        float gzipQ = -1;
+        float deflateQ = -1;
+        float identityQ = -1;
+        float anyQ = -1;
+
+        for (String part : acceptEncoding.split(",")) {
+            String coding = part;
+            float q = 1f;
+            int semicolon = part.indexOf(';');
+            if (semicolon >= 0) {
+                coding = part.substring(0, semicolon);
+                q = parseQuality(part.substring(semicolon + 1));
+            }
+            switch (coding.trim().toLowerCase(Locale.ROOT)) {
+                case GZIP, "x-gzip" -> gzipQ = Math.max(gzipQ, q);
+                case DEFLATE -> deflateQ = Math.max(deflateQ, q);
+                case "identity" -> identityQ = Math.max(identityQ, q);
+                case "*" -> anyQ = Math.max(anyQ, q);
+                default -> {
+                }
+            }
+        }
+
+        if (gzipQ < 0) gzipQ = anyQ;
+        if (deflateQ < 0) deflateQ = anyQ;
+        // identity that is not listed stays acceptable but ranks below any listed coding
+        if (identityQ < 0) identityQ = 0;
+
+        Variant best = identity;
+        float bestQ = identityQ;
+        if (deflate != null && deflateQ > 0 && deflateQ >= bestQ) {
+            best = new Variant(deflate, DEFLATE);
+            bestQ = deflateQ;
+        }
+        if (gzip != null && gzipQ > 0 && gzipQ >= bestQ) {
+            best = new Variant(gzip, GZIP);
+        }
+        return best;
+    }
+
+    private static float parseQuality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String p = parameter.trim();
+            if (p.length() > 2 && (p.charAt(0) == 'q' || p.charAt(0) == 'Q') && p.charAt(1) == '=') {
+                try {
+                    return Math.min(1f, Math.max(0f, Float.parseFloat(p.substring(2).trim())));
+                } catch (NumberFormatException e) {
+                    return 0f;
+                }
+            }
+        }
+        return 1f;
+    }
+
+    public static MediaType detectMediaType(String body) {
+        if (body == null) return MediaType.TEXT_PLAIN;
+        String t = body.trim();
+        if (t.startsWith("{")) return MediaType.APPLICATION_JSON;
+        if (t.startsWith("<")) return MediaType.APPLICATION_XML;
+        return MediaType.TEXT_PLAIN;
+    }
+
+    private static String contentType(MediaType mediaType) {
+        return new MediaType(mediaType, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * One representation of the body.
+     *
+     * @param bytes the bytes to write
+     * @param contentEncoding the Content-Encoding value, null for identity
+     */
+    public record Variant(byte[] bytes, String contentEncoding) {
+    }
+}
@@ -0,0 +1,14 @@
+package org.mengsor.web_local_api.model.response;
+
+import java.nio.file.Path;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * A response body served straight from a file, never loaded into memory.
+ *
+ * @param path the absolute, normalized file path
+ * @param contentType the Content-Type value, derived from the file extension
+ */
+public record FileBody(Path path, String contentType) {
+}
@@ -0,0 +1,14 @@
+package org.mengsor.web_local_api.model.response;
+
+import java.util.List;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * One page of a request log query, newest first.
+ *
+ * @param items the logs on this page
+ * @param nextCursor pass as {@code cursor} to get the next (older) page; null on the last page
+ */
+public record RequestLogPage(List<RequestLogSummary> items, String nextCursor) {
+}
@@ -0,0 +1,31 @@
+package org.mengsor.web_local_api.model.response;
+
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.enums.MatchStatus;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * The list view of a request log, without bodies, headers or the non-match report.
+ */
+public record RequestLogSummary(String id,
+                                String timestamp,
+                                long epochMillis,
+                                String method,
+                                String url,
+                                String apiName,
+                                MatchStatus matchStatus,
+                                int statusCode) {
+
+    public static RequestLogSummary of(RequestLog log) {
+        return new RequestLogSummary(log.getId(), log.getTimestamp(), log.getEpochMillis(), log.getMethod(),
+                log.getUrl(), log.getApiName(), log.getMatchStatus(), statusCode(log));
+    }
+
+    /**
+     * Unmatched requests only record statusCode, older entries only status; whichever is set.
+     */
+    public static int statusCode(RequestLog log) {
+        return log.getStatusCode() != 0 ? log.getStatusCode() : log.getStatus();
+    }
+}
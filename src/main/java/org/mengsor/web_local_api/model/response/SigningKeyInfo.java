@@ -0,0 +1,17 @@
+package org.mengsor.web_local_api.model.response;
+
+import com.nimbusds.jose.jwk.JWK;
+import org.mengsor.web_local_api.security.oauth.util.Jwks;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * The active token signing key as shown on the settings page, without any key material.
+ */
+public record SigningKeyInfo(String keyId, String algorithm, String issuedAt) {
+
+    public static SigningKeyInfo of(JWK key) {
+        return new SigningKeyInfo(key.getKeyID(), Jwks.algorithmOf(key).getName(),
+                key.getIssueTime() != null ? key.getIssueTime().toInstant().toString() : null);
+    }
+}
@@ -2,6 +2,7 @@ package org.mengsor.web_local_api.model.yaml;
 
 import org.mengsor.web_local_api.model.ApiConfig;
 import org.mengsor.web_local_api.model.CreateNewApi;
+import org.mengsor.web_local_api.model.enums.DelayMode;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.nodes.Tag;
@@ -23,6 +24,7 @@ public final class YamlFactory {
         // 🔥 IMPORTANT: remove !!class
         representer.addClassTag(CreateNewApi.class, Tag.MAP);
         representer.addClassTag(ApiConfig.class, Tag.MAP);
+        representer.addClassTag(DelayMode.class, Tag.STR);
 
         return new Yaml(representer, options);
     }
@@ -30,7 +30,7 @@ public class ApiKeyFilter extends OncePerRequestFilter {
             FilterChain chain)
             throws IOException, ServletException {
 
-        SecurityMode mode = settingCacheService.load().getSecurityMode();
+        SecurityMode mode = settingCacheService.snapshot().securityMode();
 
         if (mode != SecurityMode.API_KEY) {
             chain.doFilter(request, response);
@@ -1,13 +1,23 @@
 package org.mengsor.web_local_api.security.configsecurity;
 
 
-import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import lombok.RequiredArgsConstructor;
+import org.mengsor.web_local_api.component.VerifiedCredentialCache;
 import org.mengsor.web_local_api.security.customoauth.CustomOAuth2AuthenticationConverter;
 import org.mengsor.web_local_api.security.customoauth.ResourceOwnerPasswordAuthenticationProvider;
-import org.mengsor.web_local_api.security.oauth.util.Jwks;
+import org.mengsor.web_local_api.security.oauth.CachingJwtDecoder;
+import org.mengsor.web_local_api.security.oauth.Ed25519Jws;
+import org.mengsor.web_local_api.security.oauth.SigningKeyJwtEncoder;
+import org.mengsor.web_local_api.security.oauth.SigningKeyStore;
 import org.mengsor.web_local_api.security.services.CustomRegisteredClientRepository;
 import org.mengsor.web_local_api.security.services.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -23,12 +33,14 @@ import org.springframework.security.oauth2.server.authorization.config.annotatio
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
 import org.springframework.security.oauth2.server.authorization.token.*;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
-import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import java.security.Key;
+import java.security.PublicKey;
+
 @Configuration
 @RequiredArgsConstructor
 public class AuthorizationServerConfig {
@@ -36,20 +48,60 @@ public class AuthorizationServerConfig {
     private final @Lazy CustomRegisteredClientRepository registeredClientRepository;
     private final CustomUserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final VerifiedCredentialCache credentialCache;
+    private final SigningKeyStore signingKeyStore;
 
     @Bean
     public AuthenticationManager authenticationManager() {
         DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider();
         daoProvider.setUserDetailsService(userDetailsService);
         daoProvider.setPasswordEncoder(passwordEncoder);
-        return new ProviderManager(daoProvider);
+        ProviderManager providerManager = new ProviderManager(daoProvider);
+        // password grant: a repeat login skips the BCrypt check
+        return authentication -> credentialCache.verify("password-grant",
+                authentication.getName(),
+                authentication.getCredentials() != null ? authentication.getCredentials().toString() : null,
+                () -> providerManager.authenticate(authentication));
     }
 
+    /**
+     * Published on /oauth2/jwks: the public parts of the active and previous signing keys.
+     */
     @Bean
     public JWKSource<SecurityContext> jwkSource() {
-        RSAKey rsaKey = Jwks.generateRsa();
-        JWKSet jwkSet = new JWKSet(rsaKey);
-        return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
+        return (jwkSelector, securityContext) -> jwkSelector.select(signingKeyStore.publicKeys());
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder() {
+        return new SigningKeyJwtEncoder(signingKeyStore);
+    }
+
+    /**
+     * Decoder of the resource server (and the reactive engine): verifies tokens against our own keys, picked
+     * by the kid of the token, and caches the result per token until the keys are rotated.
+     */
+    @Bean
+    public CachingJwtDecoder jwtDecoder(@Value("${security.jwt-cache.max-entries:10000}") int maxEntries) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector((header, context) ->
+                signingKeyStore.verificationKeys(header.getAlgorithm(), header.getKeyID()));
+        jwtProcessor.setJWSVerifierFactory(new DefaultJWSVerifierFactory() {
+            @Override
+            public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+                if (JWSAlgorithm.EdDSA.equals(header.getAlgorithm()) && key instanceof PublicKey publicKey) {
+                    return Ed25519Jws.verifier(publicKey);
+                }
+                return super.createJWSVerifier(header, key);
+            }
+        });
+        // claims are checked by the JwtValidators of NimbusJwtDecoder
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        CachingJwtDecoder decoder = new CachingJwtDecoder(new NimbusJwtDecoder(jwtProcessor), maxEntries);
+        signingKeyStore.onRotation(decoder::clear);
+        return decoder;
     }
 
     @Bean
@@ -62,7 +114,7 @@ public class AuthorizationServerConfig {
                         .authenticationProvider(new ResourceOwnerPasswordAuthenticationProvider(
                                 authenticationManager(),
                                 authorizationService(),
-                                tokenGenerator((jwkSelector, securityContext) -> jwkSelector.select(new JWKSet())),
+                                tokenGenerator(),
                                 registeredClientRepository
                         ))
                 );
@@ -76,10 +128,9 @@ public class AuthorizationServerConfig {
     }
 
     @Bean
-    public OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator(JWKSource<SecurityContext> jwkSource) {
-        // JWT encoder/generator (for signed JWT access tokens)
-        JwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkSource);
-        JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
+    public OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator() {
+        // JWT generator (for signed JWT access tokens)
+        JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder());
 
         // Also include standard generators so Delegating can return either Jwt or OAuth2AccessToken/RefreshToken
         OAuth2AccessTokenGenerator accessTokenGenerator = new OAuth2AccessTokenGenerator();
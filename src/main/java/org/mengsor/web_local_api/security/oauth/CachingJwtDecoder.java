@@ -0,0 +1,70 @@
+package org.mengsor.web_local_api.security.oauth;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Remembers decoded bearer tokens, so a client reusing one token pays for the signature check and claim
+ * validation once. An entry is served until the token's {@code exp} (tokens without one for at most
+ * five minutes); afterwards the token goes through the delegate again. Only successfully decoded tokens
+ * are cached. The cache is bounded and must be cleared whenever the signing keys change.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final Duration NO_EXPIRY_TTL = Duration.ofMinutes(5);
+
+    private final JwtDecoder delegate;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("JWT cache max entries must be greater than 0");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Instant now = Instant.now();
+        Entry entry = entries.get(token);
+        if (entry != null) {
+            if (now.isBefore(entry.expiresAt())) {
+                return entry.jwt();
+            }
+            entries.remove(token, entry);
+        }
+
+        Jwt jwt = delegate.decode(token);
+        Instant expiresAt = jwt.getExpiresAt() != null ? jwt.getExpiresAt() : now.plus(NO_EXPIRY_TTL);
+        if (now.isBefore(expiresAt)) {
+            if (entries.size() >= maxEntries) {
+                entries.values().removeIf(e -> !now.isBefore(e.expiresAt()));
+                if (entries.size() >= maxEntries) {
+                    entries.clear(); // all live; start over rather than track recency on every hit
+                }
+            }
+            entries.put(token, new Entry(jwt, expiresAt));
+        }
+        return jwt;
+    }
+
+    /**
+     * Drops every cached token, e.g. after a signing key was rotated out.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private record Entry(Jwt jwt, Instant expiresAt) {
+    }
+}
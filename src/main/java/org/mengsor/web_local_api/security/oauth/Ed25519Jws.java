@@ -0,0 +1,114 @@
+package org.mengsor.web_local_api.security.oauth;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+import org.mengsor.web_local_api.security.oauth.util.Jwks;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Set;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * EdDSA (Ed25519) signing and verification on the JDK provider. The Nimbus Ed25519 signer and verifier
+ * need Tink on the classpath; the JDK has supported Ed25519 since 15, so we use it directly.
+ */
+public final class Ed25519Jws {
+
+    private static final String ALGORITHM = "Ed25519";
+    private static final Set<JWSAlgorithm> SUPPORTED = Set.of(JWSAlgorithm.EdDSA);
+
+    private Ed25519Jws() {
+    }
+
+    public static JWSSigner signer(OctetKeyPair key) throws JOSEException {
+        try {
+            return new Signer(Jwks.ed25519PrivateKey(key));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Invalid Ed25519 private key: " + e.getMessage(), e);
+        }
+    }
+
+    public static JWSVerifier verifier(PublicKey publicKey) {
+        return new Verifier(publicKey);
+    }
+
+    private static final class Signer implements JWSSigner {
+
+        private final PrivateKey privateKey;
+        private final JCAContext jcaContext = new JCAContext();
+
+        private Signer(PrivateKey privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        @Override
+        public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+            if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+                throw new JOSEException("Unsupported JWS algorithm " + header.getAlgorithm() + ", must be EdDSA");
+            }
+            try {
+                Signature signature = Signature.getInstance(ALGORITHM);
+                signature.initSign(privateKey);
+                signature.update(signingInput);
+                return Base64URL.encode(signature.sign());
+            } catch (GeneralSecurityException e) {
+                throw new JOSEException("Ed25519 signing failed: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return SUPPORTED;
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+
+    private static final class Verifier implements JWSVerifier {
+
+        private final PublicKey publicKey;
+        private final JCAContext jcaContext = new JCAContext();
+
+        private Verifier(PublicKey publicKey) {
+            this.publicKey = publicKey;
+        }
+
+        @Override
+        public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+            if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+                return false;
+            }
+            try {
+                Signature verifier = Signature.getInstance(ALGORITHM);
+                verifier.initVerify(publicKey);
+                verifier.update(signingInput);
+                return verifier.verify(signature.decode());
+            } catch (GeneralSecurityException e) {
+                return false; // malformed signature
+            }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return SUPPORTED;
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+}
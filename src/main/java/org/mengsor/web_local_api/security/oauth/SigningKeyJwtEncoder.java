@@ -0,0 +1,74 @@
+package org.mengsor.web_local_api.security.oauth;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.net.URL;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Signs tokens with the active key of the SigningKeyStore. The header always carries that key's algorithm
+ * and kid, whatever the caller asked for, so verifiers pick the right key after a rotation. Unlike
+ * NimbusJwtEncoder this also signs with Ed25519 keys, through the JDK provider.
+ */
+public class SigningKeyJwtEncoder implements JwtEncoder {
+
+    private final SigningKeyStore keyStore;
+
+    public SigningKeyJwtEncoder(SigningKeyStore keyStore) {
+        this.keyStore = keyStore;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        SigningKeyStore.ActiveKey active = keyStore.activeSigner();
+
+        JWSHeader.Builder header = new JWSHeader.Builder(active.algorithm()).keyID(active.key().getKeyID());
+        JwsHeader requested = parameters.getJwsHeader();
+        if (requested != null && requested.getType() != null) {
+            header.type(new JOSEObjectType(requested.getType()));
+        }
+
+        JwtClaimsSet claims = parameters.getClaims();
+        JWTClaimsSet.Builder claimsSet = new JWTClaimsSet.Builder();
+        claims.getClaims().forEach((name, value) -> claimsSet.claim(name, toJson(value)));
+
+        SignedJWT jwt = new SignedJWT(header.build(), claimsSet.build());
+        try {
+            jwt.sign(active.signer());
+        } catch (JOSEException e) {
+            throw new JwtEncodingException("Failed to sign the JWT: " + e.getMessage(), e);
+        }
+
+        return Jwt.withTokenValue(jwt.serialize())
+                .headers(h -> h.putAll(jwt.getHeader().toJSONObject()))
+                .claims(c -> c.putAll(claims.getClaims()))
+                .build();
+    }
+
+    /**
+     * Converts a claim value to what the Nimbus claims set serializes as intended.
+     */
+    private static Object toJson(Object value) {
+        if (value instanceof Instant instant) return Date.from(instant);
+        if (value instanceof URL url) return url.toExternalForm();
+        if (value instanceof Collection<?> collection) {
+            return new ArrayList<>(collection.stream().map(SigningKeyJwtEncoder::toJson).toList());
+        }
+        return value;
+    }
+}
@@ -0,0 +1,239 @@
+package org.mengsor.web_local_api.security.oauth;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.model.enums.SigningAlgorithm;
+import org.mengsor.web_local_api.security.oauth.util.Jwks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Token signing keys, kept in a JWK set file under skyvva.home so tokens stay valid across restarts.
+ * The first key of the set signs new tokens; the keys after it were rotated out and only verify tokens
+ * issued before the rotation. At startup a key is generated if the file is missing or its active key
+ * does not use the configured algorithm. The file holds private keys and is written owner-only.
+ */
+@Slf4j
+@Component
+public class SigningKeyStore {
+
+    private final Path filePath;
+    private final SigningAlgorithm algorithm;
+    private final int retained;
+    // serializes rotations: guards the file
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Runnable> rotationListeners = new CopyOnWriteArrayList<>();
+    private volatile Keys keys;
+
+    public SigningKeyStore(@Value("${security.jwt.keystore.path:${skyvva.home}/keys/jwks.json}") String path,
+                           @Value("${security.jwt.signing-algorithm:RS256}") SigningAlgorithm algorithm,
+                           @Value("${security.jwt.keys.retained:2}") int retained) {
+        if (retained <= 0) {
+            throw new IllegalArgumentException("security.jwt.keys.retained must be greater than 0");
+        }
+        this.filePath = Paths.get(path);
+        this.algorithm = algorithm;
+        this.retained = retained;
+
+        List<JWK> stored = read();
+        if (stored.isEmpty() || !Jwks.algorithmOf(stored.get(0)).getName().equals(algorithm.name())) {
+            stored = withNewKey(stored);
+            write(stored);
+            log.info("Generated {} signing key {} in {}", algorithm, stored.get(0).getKeyID(), filePath);
+        }
+        this.keys = Keys.of(stored);
+    }
+
+    /**
+     * Generates a new active key. The previous active key keeps verifying until it falls out of the
+     * retained keys; listeners run after the new key is stored.
+     *
+     * @return the new active key, public part only
+     */
+    public JWK rotate() {
+        Keys rotated;
+        lock.lock();
+        try {
+            List<JWK> stored = withNewKey(keys.all());
+            write(stored);
+            rotated = Keys.of(stored);
+            keys = rotated;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Rotated signing key, active key is now {} ({})", rotated.active().getKeyID(), algorithm);
+        rotationListeners.forEach(Runnable::run);
+        return rotated.active().toPublicJWK();
+    }
+
+    /**
+     * @param listener runs after every rotation, e.g. to drop tokens verified with a retired key
+     */
+    public void onRotation(Runnable listener) {
+        rotationListeners.add(listener);
+    }
+
+    /**
+     * @return the active key, public part only
+     */
+    public JWK activeKey() {
+        return keys.active().toPublicJWK();
+    }
+
+    /**
+     * @return the active and previous keys, public parts only, as published on the JWKS endpoint
+     */
+    public JWKSet publicKeys() {
+        return keys.publicSet();
+    }
+
+    /**
+     * @return the signer of the active key and the key itself, read together so they always match
+     */
+    public ActiveKey activeSigner() {
+        Keys current = keys;
+        return new ActiveKey(current.active(), Jwks.algorithmOf(current.active()), current.signer());
+    }
+
+    /**
+     * @param keyId the kid of the token header, or null to try every key of the algorithm
+     * @return the public keys that may have signed a token with this header
+     */
+    public List<PublicKey> verificationKeys(JWSAlgorithm algorithm, String keyId) {
+        Keys current = keys;
+        List<PublicKey> result = new ArrayList<>(1);
+        for (Map.Entry<JWK, PublicKey> entry : current.verification().entrySet()) {
+            JWK key = entry.getKey();
+            if ((keyId == null || keyId.equals(key.getKeyID())) && algorithm.equals(Jwks.algorithmOf(key))) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private List<JWK> withNewKey(List<JWK> current) {
+        List<JWK> result = new ArrayList<>(retained);
+        result.add(Jwks.generate(algorithm));
+        for (JWK key : current) {
+            if (result.size() >= retained) break;
+            result.add(key);
+        }
+        return result;
+    }
+
+    private List<JWK> read() {
+        if (!Files.exists(filePath)) return List.of();
+
+        try {
+            List<JWK> stored = JWKSet.parse(Files.readString(filePath, StandardCharsets.UTF_8)).getKeys();
+            for (JWK key : stored) {
+                if (!key.isPrivate()) {
+                    throw new IllegalStateException("Signing key " + key.getKeyID() + " in " + filePath
+                            + " has no private part");
+                }
+            }
+            return stored;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Failed to read signing keys from " + filePath, e);
+        }
+    }
+
+    private void write(List<JWK> stored) {
+        String json = new JWKSet(stored).toString(false);
+        try {
+            Files.createDirectories(filePath.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(filePath.toAbsolutePath().getParent(), "jwks", ".tmp");
+            try {
+                restrictToOwner(temp);
+                Files.writeString(temp, json, StandardCharsets.UTF_8);
+                Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save signing keys to " + filePath, e);
+        }
+    }
+
+    private static void restrictToOwner(Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system; the file keeps the directory's default access
+        }
+    }
+
+    /**
+     * The active key with its signer.
+     */
+    public record ActiveKey(JWK key, JWSAlgorithm algorithm, JWSSigner signer) {
+    }
+
+    /**
+     * One consistent set of keys: everything derived from the stored keys is built once per change.
+     */
+    private record Keys(List<JWK> all, JWK active, JWSSigner signer, JWKSet publicSet,
+                        Map<JWK, PublicKey> verification) {
+
+        static Keys of(List<JWK> all) {
+            JWK active = all.get(0);
+            Map<JWK, PublicKey> verification = new LinkedHashMap<>();
+            for (JWK key : all) {
+                verification.put(key, publicKey(key));
+            }
+            return new Keys(List.copyOf(all), active, signer(active), new JWKSet(all).toPublicJWKSet(),
+                    Collections.unmodifiableMap(verification));
+        }
+
+        private static JWSSigner signer(JWK key) {
+            try {
+                if (key instanceof RSAKey rsa) return new RSASSASigner(rsa);
+                if (key instanceof ECKey ec) return new ECDSASigner(ec);
+                if (key instanceof OctetKeyPair okp) return Ed25519Jws.signer(okp);
+            } catch (JOSEException e) {
+                throw new IllegalStateException("Invalid signing key " + key.getKeyID(), e);
+            }
+            throw new IllegalStateException("Unsupported signing key type " + key.getKeyType());
+        }
+
+        private static PublicKey publicKey(JWK key) {
+            try {
+                if (key instanceof RSAKey rsa) return rsa.toPublicKey();
+                if (key instanceof ECKey ec) return ec.toPublicKey();
+                if (key instanceof OctetKeyPair okp) return Jwks.ed25519PublicKey(okp);
+            } catch (JOSEException | GeneralSecurityException e) {
+                throw new IllegalStateException("Invalid signing key " + key.getKeyID(), e);
+            }
+            throw new IllegalStateException("Unsupported signing key type " + key.getKeyType());
+        }
+    }
+}
@@ -1,30 +1,101 @@
 package org.mengsor.web_local_api.security.oauth.util;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
 import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import org.mengsor.web_local_api.model.enums.SigningAlgorithm;
 
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
 
 public class Jwks {
-    public static RSAKey generateRsa() {
-        KeyPair keyPair = generateRsaKey();
-        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-        RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-        return new RSAKey.Builder(publicKey)
-                .privateKey(privateKey)
-                .keyID("auth-server-key") // any unique id
-                .build();
-    }
 
-    private static KeyPair generateRsaKey() {
+    // DER prefixes of an Ed25519 SubjectPublicKeyInfo and PKCS#8 key; the raw 32-byte key follows
+    private static final byte[] ED25519_X509_PREFIX = HexFormat.of().parseHex("302a300506032b6570032100");
+    private static final byte[] ED25519_PKCS8_PREFIX = HexFormat.of().parseHex("302e020100300506032b657004220420");
+    private static final int ED25519_KEY_LENGTH = 32;
+
+    /**
+     * Generates a signing key with a random key id, the algorithm and the issue time set.
+     * Ed25519 keys come from the JDK provider; Nimbus would need Tink for them.
+     */
+    public static JWK generate(SigningAlgorithm algorithm) {
+        String keyId = UUID.randomUUID().toString();
+        Date now = new Date();
         try {
-            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
-            generator.initialize(2048);
-            return generator.generateKeyPair();
-        } catch (Exception ex) {
-            throw new IllegalStateException(ex);
+            return switch (algorithm) {
+                case RS256 -> new RSAKeyGenerator(2048)
+                        .keyUse(KeyUse.SIGNATURE).algorithm(JWSAlgorithm.RS256).keyID(keyId).issueTime(now)
+                        .generate();
+                case ES256 -> new ECKeyGenerator(Curve.P_256)
+                        .keyUse(KeyUse.SIGNATURE).algorithm(JWSAlgorithm.ES256).keyID(keyId).issueTime(now)
+                        .generate();
+                case EdDSA -> generateEd25519(keyId, now);
+            };
+        } catch (JOSEException | GeneralSecurityException ex) {
+            throw new IllegalStateException("Failed to generate " + algorithm + " signing key", ex);
         }
     }
+
+    /**
+     * @return the JWS algorithm a key was generated for, from its "alg" or else its type
+     */
+    public static JWSAlgorithm algorithmOf(JWK key) {
+        if (key.getAlgorithm() != null) {
+            return JWSAlgorithm.parse(key.getAlgorithm().getName());
+        }
+        if (key instanceof OctetKeyPair) return JWSAlgorithm.EdDSA;
+        if (key instanceof RSAKey) return JWSAlgorithm.RS256;
+        return JWSAlgorithm.ES256;
+    }
+
+    public static PublicKey ed25519PublicKey(OctetKeyPair key) throws GeneralSecurityException {
+        byte[] encoded = concat(ED25519_X509_PREFIX, key.getX().decode());
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+    }
+
+    public static PrivateKey ed25519PrivateKey(OctetKeyPair key) throws GeneralSecurityException {
+        byte[] encoded = concat(ED25519_PKCS8_PREFIX, key.getD().decode());
+        return KeyFactory.getInstance("Ed25519").generatePrivate(new PKCS8EncodedKeySpec(encoded));
+    }
+
+    private static OctetKeyPair generateEd25519(String keyId, Date now) throws GeneralSecurityException {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        byte[] x = tail(keyPair.getPublic().getEncoded());
+        byte[] d = tail(keyPair.getPrivate().getEncoded());
+        return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x))
+                .d(Base64URL.encode(d))
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.EdDSA)
+                .keyID(keyId)
+                .issueTime(now)
+                .build();
+    }
+
+    private static byte[] tail(byte[] encoded) {
+        return Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_LENGTH, encoded.length);
+    }
+
+    private static byte[] concat(byte[] prefix, byte[] key) {
+        byte[] result = Arrays.copyOf(prefix, prefix.length + key.length);
+        System.arraycopy(key, 0, result, prefix.length, key.length);
+        return result;
+    }
 }
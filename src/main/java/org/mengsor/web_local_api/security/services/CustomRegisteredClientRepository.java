@@ -1,7 +1,7 @@
 package org.mengsor.web_local_api.security.services;
 
 import lombok.RequiredArgsConstructor;
-import org.mengsor.web_local_api.model.SettingCache;
+import org.mengsor.web_local_api.model.SettingSnapshot;
 import org.mengsor.web_local_api.model.enums.SecurityMode;
 import org.mengsor.web_local_api.services.SettingCacheService;
 import org.springframework.beans.factory.annotation.Value;
@@ -34,6 +34,10 @@ public class CustomRegisteredClientRepository
     private static final AuthorizationGrantType ACCESS_TOKEN = new AuthorizationGrantType("access_token");
     private static final AuthorizationGrantType AUTHORIZATION_CODE = new AuthorizationGrantType("authorization_code");
 
+    // the client built from one settings version; BCrypt-hashing the secret is deliberately slow,
+    // so it is done once per saved setting instead of on every lookup
+    private volatile VersionedClient cached = new VersionedClient(-1, null);
+
     @Override
     public void save(RegisteredClient registeredClient) {
         // no-op
@@ -46,18 +50,27 @@ public class CustomRegisteredClientRepository
 
     @Override
     public RegisteredClient findByClientId(String clientId) {
-        SettingCache cache = settingCacheService.load();
-        if (!SecurityMode.OAUTH2.equals(cache.getSecurityMode())) return null;
-        return clientId.equals(cache.getClientId()) ? loadFromCache() : null;
+        RegisteredClient client = loadFromCache();
+        return client != null && clientId.equals(client.getClientId()) ? client : null;
     }
 
     private RegisteredClient loadFromCache() {
-        SettingCache cache = settingCacheService.load();
-        if (!SecurityMode.OAUTH2.equals(cache.getSecurityMode())) return null;
+        SettingSnapshot settings = settingCacheService.snapshot();
+        VersionedClient current = cached;
+        if (current.version() != settings.version()) {
+            // concurrent callers may both build it on a new version; either result is valid
+            current = new VersionedClient(settings.version(), buildClient(settings));
+            cached = current;
+        }
+        return current.client();
+    }
+
+    private RegisteredClient buildClient(SettingSnapshot settings) {
+        if (!SecurityMode.OAUTH2.equals(settings.securityMode())) return null;
 
-        return RegisteredClient.withId(cache.getClientId()) // ✅ STABLE ID
-                .clientId(cache.getClientId())
-                .clientSecret(passwordEncoder.encode(cache.getClientSecret())) // ✅ STABLE SECRET
+        return RegisteredClient.withId(settings.clientId()) // ✅ STABLE ID
+                .clientId(settings.clientId())
+                .clientSecret(passwordEncoder.encode(settings.clientSecret())) // ✅ STABLE SECRET
                 .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
                 .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_POST)
 
@@ -71,12 +84,14 @@ public class CustomRegisteredClientRepository
 
                 .tokenSettings(TokenSettings.builder()
                         .accessTokenTimeToLive(
-                                Duration.of(cache.getTokenDuration(),
-                                        ChronoUnit.valueOf(cache.getTokenUnit().name())))
+                                Duration.of(settings.tokenDuration(),
+                                        ChronoUnit.valueOf(settings.tokenUnit().name())))
                         .refreshTokenTimeToLive(Duration.ofDays(30))
                         .reuseRefreshTokens(false)
                         .build())
                 .build();
     }
-}
 
+    private record VersionedClient(long version, RegisteredClient client) {
+    }
+}
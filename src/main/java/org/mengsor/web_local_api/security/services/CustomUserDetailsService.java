@@ -1,7 +1,7 @@
 package org.mengsor.web_local_api.security.services;
 
 import lombok.RequiredArgsConstructor;
-import org.mengsor.web_local_api.model.SettingCache;
+import org.mengsor.web_local_api.model.SettingSnapshot;
 import org.mengsor.web_local_api.services.SettingCacheService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,14 +16,26 @@ public class CustomUserDetailsService implements UserDetailsService {
     private final SettingCacheService cacheService;
     private final PasswordEncoder passwordEncoder;
 
+    // the user of one settings version, so the password is BCrypt-encoded once per saved setting
+    private volatile VersionedUser cached = new VersionedUser(-1, null);
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        SettingCache cache = cacheService.loadDecrypted();
-        return org.springframework.security.core.userdetails.User
-                .withUsername(cache.getUsername())
-                .password(passwordEncoder.encode(cache.getPassword()))
-                .roles("admin")
-                .build();
+        SettingSnapshot settings = cacheService.snapshot();
+        VersionedUser current = cached;
+        if (current.version() != settings.version()) {
+            current = new VersionedUser(settings.version(), org.springframework.security.core.userdetails.User
+                    .withUsername(settings.username())
+                    .password(passwordEncoder.encode(settings.password()))
+                    .roles("admin")
+                    .build());
+            cached = current;
+        }
+        // a copy: the authentication manager erases the password of the user it returns
+        return org.springframework.security.core.userdetails.User.withUserDetails(current.user()).build();
+    }
+
+    private record VersionedUser(long version, UserDetails user) {
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.mengsor.web_local_api.services;
 
 import org.mengsor.web_local_api.model.ApiConfig;
+import org.mengsor.web_local_api.model.ApiConfigSnapshot;
 
 import java.util.List;
 
@@ -12,4 +13,5 @@ public interface ApiConfigService {
     List<ApiConfig> findAll();
     ApiConfig findByUrl(String url);
     void delete(Long id);
+    ApiConfigSnapshot snapshot();
 }
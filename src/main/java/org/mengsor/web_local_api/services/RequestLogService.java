@@ -1,19 +1,25 @@
 package org.mengsor.web_local_api.services;
 
-import jakarta.servlet.http.HttpServletRequest;
 import org.mengsor.web_local_api.model.ApiConfig;
 import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.RequestLogQuery;
+import org.mengsor.web_local_api.model.request.StubRequest;
+import org.mengsor.web_local_api.model.response.RequestLogPage;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 public interface RequestLogService {
-    void logMatched(HttpServletRequest request, String requestBody, ApiConfig config);
+    void logMatched(StubRequest request, String requestBody, ApiConfig config);
     List<RequestLog> getLogs();
     void saveLog(String url, String method, String requestBody, String responseBody, int status, long duration);
     void clearAllLogs();
     RequestLog getLogById(String id);
     List<RequestLog> getAllLogs();
-    void logFailed(HttpServletRequest request, String requestBody, String errorMessage);
-    void logUnmatched(HttpServletRequest request, String requestBody, ApiConfig config, String errorMessage, String nonMatchReport, int statusCode);
-    void logMatched(HttpServletRequest request, String requestBody, ApiConfig config, String responseBody, int statusCode);
+    RequestLogPage queryLogs(RequestLogQuery query);
+    SseEmitter tailLogs(RequestLogQuery filter);
+    void logFailed(StubRequest request, String requestBody, String errorMessage);
+    void logUnmatched(StubRequest request, String requestBody, ApiConfig config, String errorMessage, String nonMatchReport, int statusCode);
+    void logUnmatched(StubRequest request, String requestBody, ApiConfig config, List<String> headerDiffs, int statusCode);
+    void logMatched(StubRequest request, String requestBody, ApiConfig config, String responseBody, int statusCode);
 }
@@ -1,10 +1,12 @@
 package org.mengsor.web_local_api.services;
 
 import org.mengsor.web_local_api.model.SettingCache;
+import org.mengsor.web_local_api.model.SettingSnapshot;
 
 public interface SettingCacheService {
     void save(SettingCache settingCache);
     SettingCache load();
     SettingCache loadDecrypted();
+    SettingSnapshot snapshot();
 }
 
@@ -1,24 +1,31 @@
 package org.mengsor.web_local_api.services.serviceImpl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.component.BodyFileResolver;
+import org.mengsor.web_local_api.component.XmlSupport;
+import org.mengsor.web_local_api.component.latency.ResponseTiming;
+import org.mengsor.web_local_api.component.routing.ApiRouteTable;
 import org.mengsor.web_local_api.model.yaml.YamlFactory;
 import org.mengsor.web_local_api.model.ApiConfig;
+import org.mengsor.web_local_api.model.ApiConfigSnapshot;
+import org.mengsor.web_local_api.model.enums.DelayMode;
 import org.mengsor.web_local_api.services.ApiConfigService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.xml.sax.InputSource;
 import org.yaml.snakeyaml.Yaml;
 
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.InputStream;
-import java.io.StringReader;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
@@ -28,9 +35,27 @@ public class ApiConfigServiceImpl implements ApiConfigService {
     private final Yaml yaml = YamlFactory.create();
     private final List<ApiConfig> configs = new ArrayList<>();
     private static final ObjectMapper objectMapper = new ObjectMapper();
-
-    public ApiConfigServiceImpl(@Value("${api.config.cache.path}")  String path) {
+    private final ApiRouteTable routeTable;
+    private final XmlSupport xmlSupport;
+    private final BodyFileResolver bodyFileResolver;
+    private final AtomicReference<ApiConfigSnapshot> snapshot = new AtomicReference<>(ApiConfigSnapshot.EMPTY);
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public ApiConfigServiceImpl(@Value("${api.config.cache.path}")  String path, ApiRouteTable routeTable,
+                                XmlSupport xmlSupport, BodyFileResolver bodyFileResolver) {
         this.filePath = Path.of(path);
+        this.routeTable = routeTable;
+        this.xmlSupport = xmlSupport;
+        this.bodyFileResolver = bodyFileResolver;
+    }
+
+    @PostConstruct
+    public void init() {
+        List<ApiConfig> loaded = loadFromFile();
+        loaded.forEach(api -> {
+            if (api.getVersion() == null) api.setVersion(1L);
+        });
+        publish(ApiConfigSnapshot.EMPTY, loaded);
     }
 
     @Override
@@ -40,37 +65,64 @@ public class ApiConfigServiceImpl implements ApiConfigService {
 
     @Override
     public ApiConfig findById(Long id) {
-        ApiConfig apiConfig = loadFromFile().stream().filter(api -> api.getId().equals(id)).findFirst().orElse(null);
+        ApiConfig apiConfig = id == null ? null : snapshot.get().byId().get(id);
 
-        return apiConfig != null ? apiConfig : new ApiConfig();
+        return apiConfig != null ? apiConfig.copy() : new ApiConfig();
     }
 
+    /**
+     * Saves the config and publishes a new snapshot. If the submitted config carries a version,
+     * it must still match the stored one, otherwise someone else saved in between and the save is rejected.
+     *
+     * @param apiConfig the config submitted from the UI
+     * @throws IllegalStateException if the config was modified concurrently
+     */
     @Override
-    public synchronized void save(ApiConfig apiConfig) {
+    public void save(ApiConfig apiConfig) {
         log.info("start save API config: {}", apiConfig);
         String requestBody = apiConfig.getRequestBody();
         String responseBody = apiConfig.getResponseBody();
 
         if (requestBody != null && !requestBody.isEmpty()) payloadValidator(apiConfig.getRequestFormat(), requestBody);
         if (responseBody != null && !responseBody.isEmpty()) payloadValidator(apiConfig.getResponseFormat(), responseBody);
+        if (apiConfig.getBodyFile() != null && apiConfig.getBodyFile().isBlank()) apiConfig.setBodyFile(null);
+        if (apiConfig.getBodyFile() != null) bodyFileResolver.requireReadable(apiConfig.getBodyFile());
+        ResponseTiming.of(apiConfig); // rejects inconsistent delay / throttle settings
 
-        boolean updated = false;
-        List<ApiConfig> apiConfigList = new ArrayList<>();
+        writeLock.lock();
+        try {
+            ApiConfigSnapshot current = snapshot.get();
+            ApiConfig existing = current.byId().get(apiConfig.getId());
+
+            if (existing != null && apiConfig.getVersion() != null
+                    && !apiConfig.getVersion().equals(existing.getVersion())) {
+                log.warn("Rejected stale save of API config {}: version {} but stored version is {}",
+                        apiConfig.getId(), apiConfig.getVersion(), existing.getVersion());
+                throw new IllegalStateException("API config was modified by someone else. Reload the page and try again.");
+            }
 
-        if (Files.exists(filePath)) {
-            apiConfigList = loadFromFile();
-        }
+            apiConfig.setVersion(existing == null || existing.getVersion() == null ? 1L : existing.getVersion() + 1);
+            ApiConfig stored = apiConfig.copy();
+
+            List<ApiConfig> apiConfigList = new ArrayList<>(current.configs());
+            boolean updated = false;
+            for (int i = 0; i < apiConfigList.size(); i++) {
+                if (Objects.equals(apiConfigList.get(i).getId(), stored.getId())) {
+                    apiConfigList.set(i, stored);
+                    updated = true;
+                    break;
+                }
+            }
 
-        if (!apiConfigList.isEmpty()) {
-            updated = apiConfigList.removeIf(a -> a.getId().equals(apiConfig.getId()))
-                    && apiConfigList.add(apiConfig);
-        }
+            if (!updated) {
+                apiConfigList.add(stored);
+            }
 
-        if (!updated) {
-            apiConfigList.add(apiConfig);
+            writeToFile(apiConfigList);
+            publish(current, apiConfigList);
+        } finally {
+            writeLock.unlock();
         }
-
-        writeToFile(apiConfigList);
     }
 
 
@@ -79,9 +131,18 @@ public class ApiConfigServiceImpl implements ApiConfigService {
        configs.clear();
     }
 
+    /**
+     * Returns the current snapshot's configs. The list is immutable and the configs are shared,
+     * so they must not be modified.
+     */
     @Override
-    public synchronized List<ApiConfig> findAll(){
-        return loadFromFile();
+    public List<ApiConfig> findAll(){
+        return snapshot.get().configs();
+    }
+
+    @Override
+    public ApiConfigSnapshot snapshot() {
+        return snapshot.get();
     }
 
 
@@ -92,9 +153,29 @@ public class ApiConfigServiceImpl implements ApiConfigService {
 
     @Override
     public void delete(Long id) {
-        List<ApiConfig> apis = loadFromFile();
-        apis.removeIf(a -> a.getId().equals(id));
-        writeToFile(apis);
+        writeLock.lock();
+        try {
+            ApiConfigSnapshot current = snapshot.get();
+            List<ApiConfig> apis = new ArrayList<>(current.configs());
+            apis.removeIf(a -> Objects.equals(a.getId(), id));
+            writeToFile(apis);
+            publish(current, apis);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Swaps in a new snapshot built from the given configs. Must be called by a single writer at a time,
+     * the compare-and-set only guards against a writer that bypassed the lock.
+     */
+    private void publish(ApiConfigSnapshot current, List<ApiConfig> configs) {
+        ApiConfigSnapshot next = ApiConfigSnapshot.of(current.version() + 1, configs);
+        if (!snapshot.compareAndSet(current, next)) {
+            throw new IllegalStateException("API config snapshot changed concurrently");
+        }
+        routeTable.rebuild(next.configs());
+        log.info("Published API config snapshot version {} with {} configs", next.version(), configs.size());
     }
 
     @SuppressWarnings("unchecked")
@@ -144,6 +225,14 @@ public class ApiConfigServiceImpl implements ApiConfigService {
         api.setCookies(List.class.cast(map.get("cookies")));
         api.setQueries(List.class.cast(map.get("queries")));
         api.setResponseHeaders(List.class.cast(map.get("responseHeaders")));
+        api.setVersion(map.get("version") == null ? null : Long.valueOf(map.get("version").toString()));
+        api.setBodyFile((String) map.get("bodyFile"));
+        api.setDelayMode(map.get("delayMode") == null ? DelayMode.NONE : DelayMode.valueOf(map.get("delayMode").toString()));
+        api.setDelayMs(map.get("delayMs") == null ? null : ((Number) map.get("delayMs")).longValue());
+        api.setDelayMaxMs(map.get("delayMaxMs") == null ? null : ((Number) map.get("delayMaxMs")).longValue());
+        api.setDelaySigma(map.get("delaySigma") == null ? null : ((Number) map.get("delaySigma")).doubleValue());
+        api.setThrottleBytesPerSecond(map.get("throttleBytesPerSecond") == null ? null
+                : ((Number) map.get("throttleBytesPerSecond")).longValue());
 
         return api;
     }
@@ -163,7 +252,7 @@ public class ApiConfigServiceImpl implements ApiConfigService {
         }
     }
 
-    private static void payloadValidator(String format, String body){
+    private void payloadValidator(String format, String body){
         log.info("Validating {} payload", format.toUpperCase());
         if (body == null || body.trim().isEmpty()) {
             return; // allow empty body
@@ -174,9 +263,7 @@ public class ApiConfigServiceImpl implements ApiConfigService {
                 objectMapper.readTree(body);
                 log.info("JSON payload is valid");
             } else if ("xml".equalsIgnoreCase(format)) {
-                DocumentBuilderFactory.newInstance()
-                        .newDocumentBuilder()
-                        .parse(new InputSource(new StringReader(body)));
+                xmlSupport.checkWellFormed(body);
                 log.info("XML payload is valid");
             } else {
                 log.error("Unsupported format: {}", format);
@@ -2,31 +2,23 @@ package org.mengsor.web_local_api.services.serviceImpl;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.mengsor.web_local_api.component.RequestMismatchReporter;
+import org.mengsor.web_local_api.component.SoapEnvelopeProcessor;
+import org.mengsor.web_local_api.component.SoapEnvelopeProcessor.SoapEnvelope;
+import org.mengsor.web_local_api.component.routing.ApiRouteTable;
+import org.mengsor.web_local_api.component.routing.CompiledStub;
+import org.mengsor.web_local_api.component.routing.RouteMatch;
 import org.mengsor.web_local_api.model.ApiConfig;
+import org.mengsor.web_local_api.model.request.StubRequest;
 import org.mengsor.web_local_api.model.response.ApiResponse;
-import org.mengsor.web_local_api.services.ApiConfigService;
+import org.mengsor.web_local_api.model.response.EncodedBody;
 import org.mengsor.web_local_api.services.DynamicApiService;
 import org.mengsor.web_local_api.services.RequestLogService;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.StringReader;
-import java.io.StringWriter;
+
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -34,42 +26,37 @@ import java.util.stream.Collectors;
 @Service
 public class DynamicApiServiceImpl implements DynamicApiService {
 
-    private final ApiConfigService apiConfigService;
     private final RequestLogService requestLogService;
     private final RequestMismatchReporter reporter;
+    private final ApiRouteTable routeTable;
+    private final SoapEnvelopeProcessor soapEnvelopeProcessor;
 
-    public DynamicApiServiceImpl(ApiConfigService apiConfigService,
-                                 RequestLogService requestLogService,
-                                 RequestMismatchReporter reporter) {
-        this.apiConfigService = apiConfigService;
+    public DynamicApiServiceImpl(RequestLogService requestLogService,
+                                 RequestMismatchReporter reporter,
+                                 ApiRouteTable routeTable,
+                                 SoapEnvelopeProcessor soapEnvelopeProcessor) {
         this.requestLogService = requestLogService;
         this.reporter = reporter;
+        this.routeTable = routeTable;
+        this.soapEnvelopeProcessor = soapEnvelopeProcessor;
     }
 
     @Override
-    public ApiResponse handleRequest(HttpServletRequest request, String requestBody) {
+    public ApiResponse handleRequest(StubRequest request, String requestBody) {
 
-        log.info("Received request: {} {}", request.getMethod(), request.getRequestURI());
-        String apiPath = request.getRequestURI().replaceFirst(".*/query.api/", "");
-        String method = request.getMethod();
+        log.info("Received request: {} {}", request.method(), request.requestUri());
+        String apiPath = ApiRouteTable.extractApiPath(request.requestUri());
+        String method = request.method();
 
         // Get query parameters
-        Map<String, String[]> queryParams = request.getParameterMap();
+        Map<String, String[]> queryParams = request.queryParams();
 
         // Get cookies
-        Map<String, String> cookies = new HashMap<>();
-        if (request.getCookies() != null) {
-            Arrays.stream(request.getCookies())
-                    .forEach(c -> cookies.put(c.getName(), c.getValue()));
-        }
+        Map<String, String> cookies = request.cookies();
 
-        ApiConfig config = apiConfigService.findAll().stream()
-                .filter(api -> apiPath.equalsIgnoreCase(api.getUrl()) &&
-                        method.equalsIgnoreCase(api.getMethod()))
-                .findFirst()
-                .orElse(null);
+        RouteMatch<CompiledStub> route = routeTable.lookup(method, apiPath);
 
-        if (config == null) {
+        if (route == null) {
             requestLogService.logUnmatched(
                     request,
                     requestBody,
@@ -83,6 +70,10 @@ public class DynamicApiServiceImpl implements DynamicApiService {
                     null, HttpStatus.NOT_FOUND.value());
         }
 
+        CompiledStub stub = route.value();
+        ApiConfig config = stub.config();
+        request.setAttribute(ApiRouteTable.PATH_VARIABLES_ATTRIBUTE, route.pathVariables());
+
         boolean isSoap = "SOAP".equalsIgnoreCase(config.getProtocol());
 
 //        List<ApiConfig.keyValuePair> queryList = convertToKeyValuePairList(config.getQueries());
@@ -142,30 +133,15 @@ public class DynamicApiServiceImpl implements DynamicApiService {
         }
 
 
-        // Validate Request Body
-        if (!validateFormatSafe(requestBody, config.getRequestBody())) {
-            requestLogService.logUnmatched(
-                    request,
-                    requestBody,
-                    config,
-                    "Request body format invalid",
-                    null,
-                    HttpStatus.BAD_REQUEST.value()
-            );
-            log.error("Request body format invalid: {}", requestBody);
-            return new ApiResponse(false, "Request body format invalid", null,
-                    HttpStatus.BAD_REQUEST.value());
-        }
-
         Map<String, String> soapHeaders = new HashMap<>();
         String extractedBody = requestBody;
 
         // --- SOAP Validation ---
         if (isSoap) {
             try {
-                SoapValidationResult result = validateSoapRequestWithHeaders(request, requestBody);
-                extractedBody = result.getExtractedBody();
-                soapHeaders = result.getHeaders();
+                SoapEnvelope envelope = validateSoapRequestWithHeaders(request, requestBody);
+                extractedBody = envelope.payload();
+                soapHeaders = envelope.headers();
             } catch (Exception ex) {
                 String fault = buildSoapFault(ex.getMessage());
                 requestLogService.logUnmatched(request, requestBody, config, "SOAP validation failed",
@@ -180,35 +156,45 @@ public class DynamicApiServiceImpl implements DynamicApiService {
         if ((config.getHeaders() != null && !config.getHeaders().isEmpty()) && config.getHeaders().size() > 0) {
             headerDiffs  = reporter.compareHeaders(request, config.getHeaders());
         }
-        if ((hasTemplate(config.getRequestBody()) && !reporter.bodyEquals(config.getRequestBody(), requestBody))
+        if (!stub.requestMatcher().matches(requestBody)
              || (config.getHeaders()!=null && headerDiffs.size() >0 && !headerDiffs.isEmpty())) {
 
-            String diffReport = reporter.buildNonMatchReport(request, config, requestBody, headerDiffs);
-
+            // the non-match report is rendered on demand in the request log page
             requestLogService.logUnmatched(
                     request,
                     requestBody,
                     config,
-                    "Request does not match template",
-                    diffReport,
+                    headerDiffs,
                     HttpStatus.BAD_REQUEST.value()
             );
-            log.error("Request does not match template: {}", requestBody);
-            return new ApiResponse(false, "Request does not match template", diffReport,
+            log.debug("Request does not match template: {}", requestBody);
+            return new ApiResponse(false, "Request does not match template", null,
                     HttpStatus.BAD_REQUEST.value());
         }
 
         // Prepare response
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(detectMediaType(config.getResponseBody()));
+        if (stub.file() != null) {
+            requestLogService.logMatched(request, requestBody, config,
+                    "[file] " + config.getBodyFile(), config.getStatusCode());
+            log.info("Received request successfully, serving file {}", stub.file().path());
+            return ApiResponse.builder()
+                    .success(true)
+                    .message("Success")
+                    .status(config.getStatusCode())
+                    .fileBody(stub.file())
+                    .timing(stub.timing())
+                    .build();
+        }
 
-        String responseBody = config.getResponseBody();
+        String body = config.getResponseBody();
+        EncodedBody encoded = stub.response();
 
-        if (isSoap && responseBody != null && !responseBody.contains("Envelope")) {
-            responseBody = wrapSoapResponse(responseBody, soapHeaders);
+        if (isSoap && body != null && !body.contains("Envelope")) {
+            // the wrapper echoes the request's SOAP headers, so it cannot be precomputed
+            body = wrapSoapResponse(body, soapHeaders);
+            encoded = EncodedBody.of(body, MediaType.APPLICATION_XML);
         }
 
-        String body = isSoap ? responseBody : config.getResponseBody();
         // Log success
         requestLogService.logMatched(
                 request,
@@ -219,7 +205,7 @@ public class DynamicApiServiceImpl implements DynamicApiService {
         );
 
         log.info("Received request successfully");
-        return new ApiResponse(true, "Success", body, config.getStatusCode());
+        return new ApiResponse(true, "Success", body, config.getStatusCode(), encoded, null, stub.timing());
     }
 
     // --- Helper methods ---
@@ -227,29 +213,6 @@ public class DynamicApiServiceImpl implements DynamicApiService {
         return "POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method);
     }
 
-    private boolean hasTemplate(String template) {
-        log.debug("Checking if template is present: {}", template);
-        return template != null && !template.isBlank();
-    }
-
-    private boolean validateFormatSafe(String requestBody, String template) {
-        log.debug("Validating format of request body: {} against template: {}", requestBody, template);
-        try {
-            reporter.validateFormat(requestBody, template);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private MediaType detectMediaType(String body) {
-        if (body == null) return MediaType.TEXT_PLAIN;
-        String t = body.trim();
-        if (t.startsWith("{")) return MediaType.APPLICATION_JSON;
-        if (t.startsWith("<")) return MediaType.APPLICATION_XML;
-        return MediaType.TEXT_PLAIN;
-    }
-
     private Map<String, String> toMap(List<ApiConfig.keyValuePair> list) {
         if (list == null) return Collections.emptyMap();
         return list.stream().collect(Collectors.toMap(ApiConfig.keyValuePair::getKey,
@@ -265,79 +228,14 @@ public class DynamicApiServiceImpl implements DynamicApiService {
     }
 
     // --- SOAP validation with WS-Security ---
-    private SoapValidationResult validateSoapRequestWithHeaders(HttpServletRequest request, String body) throws Exception {
+    private SoapEnvelope validateSoapRequestWithHeaders(StubRequest request, String body) {
         if (body == null || body.isBlank()) throw new RuntimeException("SOAP body is empty");
 
         // SOAPAction
-        String soapAction = request.getHeader("SOAPAction");
+        String soapAction = request.header("SOAPAction");
         if (soapAction == null || soapAction.isBlank()) throw new RuntimeException("Missing SOAPAction header");
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        Document doc = factory.newDocumentBuilder().parse(new InputSource(new StringReader(body)));
-
-        Map<String, String> headersMap = new HashMap<>();
-
-        // --- Extract headers ---
-        NodeList headerNodes = doc.getElementsByTagNameNS("*", "Header");
-        if (headerNodes.getLength() > 0) {
-            NodeList children = headerNodes.item(0).getChildNodes();
-            for (int i = 0; i < children.getLength(); i++) {
-                Node child = children.item(i);
-                if (child.getNodeType() == Node.ELEMENT_NODE) {
-                    headersMap.put(child.getLocalName(), child.getTextContent().trim());
-
-                    // --- WS-Security validation ---
-                    if ("Security".equals(child.getLocalName())) {
-                        validateWSSecurity(child);
-                    }
-                }
-            }
-        }
-
-        // --- Extract body payload ---
-        NodeList bodyNodes = doc.getElementsByTagNameNS("*", "Body");
-        if (bodyNodes.getLength() == 0) throw new RuntimeException("SOAP Body not found");
-        Node bodyNode = bodyNodes.item(0).getFirstChild();
-        if (bodyNode == null) throw new RuntimeException("SOAP Body is empty");
-
-        StringWriter sw = new StringWriter();
-        Transformer transformer = TransformerFactory.newInstance().newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.transform(new DOMSource(bodyNode), new StreamResult(sw));
-
-        return SoapValidationResult.valid(sw.toString(), headersMap);
-    }
-
-    // --- WS-Security validation ---
-    private void validateWSSecurity(Node securityNode) {
-        NodeList children = securityNode.getChildNodes();
-        String username = null;
-        String password = null;
-
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if ("UsernameToken".equals(child.getLocalName())) {
-                NodeList tokenChildren = child.getChildNodes();
-                for (int j = 0; j < tokenChildren.getLength(); j++) {
-                    Node tokenChild = tokenChildren.item(j);
-                    if ("Username".equals(tokenChild.getLocalName())) {
-                        username = tokenChild.getTextContent().trim();
-                    } else if ("Password".equals(tokenChild.getLocalName())) {
-                        password = tokenChild.getTextContent().trim();
-                    }
-                }
-            }
-        }
-
-        if (username == null || password == null) {
-            throw new RuntimeException("Missing WS-Security Username or Password");
-        }
-
-        // --- Mock credentials (replace with DB/config if needed) ---
-        if (!"admin".equals(username) || !"admin123".equals(password)) {
-            throw new RuntimeException("Invalid WS-Security credentials");
-        }
+        return soapEnvelopeProcessor.read(body);
     }
 
     // --- SOAP response wrapper ---
@@ -373,13 +271,4 @@ public class DynamicApiServiceImpl implements DynamicApiService {
         </soapenv:Envelope>
         """.formatted(message);
     }
-
-    // --- SOAP Validation Result ---
-    private record SoapValidationResult(String extractedBody, Map<String, String> headers) {
-        static SoapValidationResult valid(String extractedBody, Map<String, String> headers) {
-            return new SoapValidationResult(extractedBody, headers);
-        }
-        String getExtractedBody() { return extractedBody; }
-        Map<String, String> getHeaders() { return headers; }
-    }
 }
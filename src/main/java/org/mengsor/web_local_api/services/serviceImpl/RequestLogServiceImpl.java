@@ -1,39 +1,76 @@
 package org.mengsor.web_local_api.services.serviceImpl;
 
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.mengsor.web_local_api.component.requestlog.RequestCapture;
+import org.mengsor.web_local_api.component.requestlog.RequestLogBroadcaster;
+import org.mengsor.web_local_api.component.requestlog.RequestLogPipeline;
+import org.mengsor.web_local_api.component.requestlog.RequestLogRing;
+import org.mengsor.web_local_api.component.requestlog.RequestLogStore;
 import org.mengsor.web_local_api.model.ApiConfig;
 import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.RequestLogQuery;
 import org.mengsor.web_local_api.model.enums.MatchStatus;
+import org.mengsor.web_local_api.model.request.StubRequest;
+import org.mengsor.web_local_api.model.response.RequestLogPage;
 import org.mengsor.web_local_api.services.RequestLogService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class RequestLogServiceImpl implements RequestLogService {
 
-    private final List<RequestLog> logs = new ArrayList<>();
+    private final RequestLogRing logs;
+    private final RequestLogStore store;
+    private final RequestLogPipeline pipeline;
+    private final RequestLogBroadcaster broadcaster;
     private final AtomicLong idGen = new AtomicLong(1);
 
+    public RequestLogServiceImpl(@Value("${request.log.capacity:10000}") int capacity,
+                                 @Value("${request.log.max-age:24h}") Duration maxAge,
+                                 @Value("${request.log.queue-capacity:8192}") int queueCapacity,
+                                 @Value("${request.log.batch-size:256}") int batchSize,
+                                 RequestLogStore store,
+                                 RequestLogBroadcaster broadcaster) {
+        this.logs = new RequestLogRing(capacity, maxAge.toMillis());
+        this.store = store;
+        this.broadcaster = broadcaster;
+        store.replay(capacity).forEach(logs::append);
+        this.pipeline = new RequestLogPipeline(queueCapacity, batchSize, batch -> {
+            store.append(batch);
+            batch.forEach(logs::append);
+            broadcaster.publish(batch);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pipeline.close();
+    }
+
     @Override
-    public void logMatched(HttpServletRequest request, String requestBody, ApiConfig config) {
-        RequestLog log = createLog(request, requestBody, config.getResponseBody(),
-                config.getRequestBody(), MatchStatus.MATCHED, config.getStatusCode());
-        logs.add(log);
+    public void logMatched(StubRequest request, String requestBody, ApiConfig config) {
+        pipeline.publish(capture(request, requestBody)
+                .responseBody(config.getResponseBody())
+                .expectedRequestBody(config.getRequestBody())
+                .matchStatus(MatchStatus.MATCHED)
+                .status(config.getStatusCode())
+                .build());
     }
 
     @Override
     public List<RequestLog> getLogs() {
-        return logs;
+        return logs.snapshot();
     }
 
     @Override
@@ -49,118 +86,113 @@ public class RequestLogServiceImpl implements RequestLogService {
         log.setDuration(duration);
         log.setTimestamp(String.valueOf(zonedDateTime.toLocalDateTime()));
 
-        logs.add(log);
+        logs.append(log);
     }
 
     @Override
     public void clearAllLogs() {
         logs.clear();
+        store.clear();
     }
 
     @Override
     public RequestLog getLogById(String id) {
-        return logs.stream().filter(l -> l.getId().equals(id)).findFirst().orElse(null);
+        return logs.find(id);
     }
 
     @Override
     public List<RequestLog> getAllLogs() {
-        log.info("Returning {} logs", logs.size());
-        return new ArrayList<>(logs);
+        List<RequestLog> snapshot = logs.snapshot();
+        log.info("Returning {} logs", snapshot.size());
+        return snapshot;
     }
 
     @Override
-    public void logFailed(HttpServletRequest request, String requestBody, String errorMessage) {
-        RequestLog log = createLog(request, requestBody, null, null, MatchStatus.UNMATCHED,
-                HttpStatus.BAD_REQUEST.value());
-        log.setResponseBody(errorMessage); // store error message in responseBody
-        logs.add(log);
+    public RequestLogPage queryLogs(RequestLogQuery query) {
+        return logs.query(query);
     }
 
-    private RequestLog createLog(HttpServletRequest request, String requestBody, String responseBody,
-                                 String expectedRequestBody, MatchStatus status, int httpStatus) {
-        ZonedDateTime zonedDateTime = ZonedDateTime.now(ZoneId.of("GMT+7"));
-        LocalDateTime now = LocalDateTime.now(ZoneId.of("GMT+7"));
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSSSS");
-        String formatted = now.format(formatter);
-        RequestLog log = new RequestLog();
-        log.setId(UUID.randomUUID().toString()); // simple ID for example
-        log.setUrl(request.getRequestURI());
-        log.setMethod(request.getMethod());
-        log.setClientIp(request.getRemoteAddr());
-        log.setRequestBody(requestBody);
-        log.setResponseBody(responseBody);
-        log.setExpectedRequestBody(expectedRequestBody);
-        log.setMatchStatus(status);
-        log.setStatus(httpStatus);
-        log.setTimestamp(formatted);
-        log.setDuration(0); // can compute duration if needed
-        log.setHeaders(Collections.list(request.getHeaderNames())
-                .stream()
-                .collect(Collectors.toMap(h -> h, request::getHeader)));
-        return log;
+    @Override
+    public SseEmitter tailLogs(RequestLogQuery filter) {
+        return broadcaster.subscribe(filter);
     }
 
-    public Optional<RequestLog> getLogByIds(Long id) {
-        return logs.stream().filter(log -> log.getId().equals(id)).findFirst();
+    @Override
+    public void logFailed(StubRequest request, String requestBody, String errorMessage) {
+        pipeline.publish(capture(request, requestBody)
+                .responseBody(errorMessage) // store error message in responseBody
+                .matchStatus(MatchStatus.UNMATCHED)
+                .status(HttpStatus.BAD_REQUEST.value())
+                .build());
     }
 
-    /* ===================== INTERNAL ===================== */
-
-    private RequestLog baseLog(HttpServletRequest request, String requestBody) {
-
-        LocalDateTime now = LocalDateTime.now(ZoneId.of("GMT+7"));
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSSSS");
-        String formatted = now.format(formatter);
-
-        RequestLog log = new RequestLog();
-        log.setId(UUID.randomUUID().toString());
-        log.setTimestamp(formatted);
-
-        log.setUrl(request.getRequestURI());
-        log.setMethod(request.getMethod());
-        log.setClientIp(request.getRemoteAddr());
-        log.setRequestBody(requestBody);
-        log.setDuration(0); // can calculate later
-
-        log.setHeaders(Collections.list(request.getHeaderNames())
-                .stream()
-                .collect(Collectors.toMap(h -> h, request::getHeader)));
-
-        return log;
+    public Optional<RequestLog> getLogByIds(Long id) {
+        return logs.snapshot().stream().filter(log -> log.getId().equals(id)).findFirst();
     }
 
     @Override
-    public void logUnmatched(HttpServletRequest request,
+    public void logUnmatched(StubRequest request,
                              String requestBody,
                              ApiConfig config,
                              String errorMessage,
                              String nonMatchReport,
                              int statusCode) {
 
-        RequestLog log = baseLog(request, requestBody);
-
-        if (config != null) {
-            log.setExpectedRequestBody(config.getRequestBody());
-        }
+        pipeline.publish(capture(request, requestBody)
+                .expectedRequestBody(config != null ? config.getRequestBody() : null)
+                .matchStatus(MatchStatus.UNMATCHED)
+                .nonMatchReport(nonMatchReport)
+                .statusCode(statusCode)
+                .build());
+    }
 
-        log.setMatchStatus(MatchStatus.UNMATCHED);
-        log.setNonMatchReport(nonMatchReport);
-        log.setStatusCode(statusCode);
+    /**
+     * Records a request that did not match its closest stub. Only the inputs of the non-match report are
+     * kept; the report itself is rendered when the log is first viewed.
+     */
+    @Override
+    public void logUnmatched(StubRequest request,
+                             String requestBody,
+                             ApiConfig config,
+                             List<String> headerDiffs,
+                             int statusCode) {
 
-        logs.add(log);
+        pipeline.publish(capture(request, requestBody)
+                .expectedRequestBody(config.getRequestBody())
+                .stubMethod(config.getMethod())
+                .stubUrl(config.getUrl())
+                .headerDiffs(headerDiffs)
+                .matchStatus(MatchStatus.UNMATCHED)
+                .statusCode(statusCode)
+                .build());
     }
 
     @Override
-    public void logMatched(HttpServletRequest request, String requestBody, ApiConfig config, String responseBody, int statusCode) {
-        RequestLog log = baseLog(request, requestBody);
-        log.setExpectedRequestBody(config.getRequestBody());
-        log.setApiName(config.getName());
-        log.setResponseBody(responseBody);
-        log.setStatusCode(statusCode);
-        log.setMatchStatus(MatchStatus.MATCHED);
+    public void logMatched(StubRequest request, String requestBody, ApiConfig config, String responseBody, int statusCode) {
+        pipeline.publish(capture(request, requestBody)
+                .expectedRequestBody(config.getRequestBody())
+                .apiName(config.getName())
+                .responseBody(responseBody)
+                .statusCode(statusCode)
+                .matchStatus(MatchStatus.MATCHED)
+                .build());
+    }
+
+    /* ===================== INTERNAL ===================== */
 
-        logs.add(log);
+    /**
+     * Copies what the log needs from the request, which may be recycled once the response is sent.
+     */
+    private RequestCapture.RequestCaptureBuilder capture(StubRequest request, String requestBody) {
+        RequestCapture.RequestCaptureBuilder capture = RequestCapture.builder()
+                .time(Instant.now())
+                .requestBody(requestBody);
+        if (request != null) {
+            capture.method(request.method())
+                    .url(request.requestUri())
+                    .clientIp(request.remoteAddr())
+                    .headers(request.headers());
+        }
+        return capture;
     }
 }
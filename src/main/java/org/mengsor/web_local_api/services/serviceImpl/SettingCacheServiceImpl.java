@@ -3,6 +3,7 @@ package org.mengsor.web_local_api.services.serviceImpl;
 
 import org.mengsor.web_local_api.configuration.until.CryptoUtil;
 import org.mengsor.web_local_api.model.SettingCache;
+import org.mengsor.web_local_api.model.SettingSnapshot;
 import org.mengsor.web_local_api.model.enums.SecurityMode;
 import org.mengsor.web_local_api.model.enums.TokenUnit;
 import org.mengsor.web_local_api.services.SettingCacheService;
@@ -20,21 +21,49 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.LinkedHashMap;
 import java.util.Map;
-
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Settings stored in setting-cache.yml. The file is read once at startup and after every save; in between
+ * everyone reads the published SettingSnapshot, so a request never does file IO or decryption.
+ */
 @Service
 public class SettingCacheServiceImpl implements SettingCacheService {
 
     private final Path filePath;
     private final Yaml yaml = new Yaml();
     private final PasswordEncoder passwordEncoder;
+    // serializes saves: guards the file and the (not thread-safe) Yaml instance; a lock instead of
+    // synchronized so a virtual thread saving does not pin its carrier while blocked on file IO
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile SettingSnapshot snapshot;
 
     public SettingCacheServiceImpl(@Value("${setting.cache.path}") String path, PasswordEncoder passwordEncoder, PasswordEncoder passwordEncoder1) {
         this.filePath = Paths.get(path);
         this.passwordEncoder = passwordEncoder;
+        this.snapshot = SettingSnapshot.of(1, decrypt(read()));
+    }
+
+    @Override
+    public void save(SettingCache cache) {
+        lock.lock();
+        try {
+            write(cache);
+            // publish what was stored, exactly as a restart would read it back
+            snapshot = SettingSnapshot.of(snapshot.version() + 1, decrypt(read()));
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized void save(SettingCache cache) {
+    public SettingSnapshot snapshot() {
+        return snapshot;
+    }
+
+    private void write(SettingCache cache) {
         // Encrypt password
         if (cache.getPassword() != null && !cache.getPassword().isEmpty()) {
             cache.setPassword(CryptoUtil.encrypt(cache.getPassword()));
@@ -65,8 +94,19 @@ public class SettingCacheServiceImpl implements SettingCacheService {
         }
     }
 
+    /**
+     * @return a copy of the current settings with the password encrypted, as stored
+     */
     @Override
-    public synchronized SettingCache load() {
+    public SettingCache load() {
+        SettingCache cache = snapshot.toSettingCache();
+        if (cache.getPassword() != null && !cache.getPassword().isEmpty()) {
+            cache.setPassword(CryptoUtil.encrypt(cache.getPassword()));
+        }
+        return cache;
+    }
+
+    private SettingCache read() {
         if (!Files.exists(filePath)) return new SettingCache();
 
         try (InputStream in = Files.newInputStream(filePath)) {
@@ -92,7 +132,10 @@ public class SettingCacheServiceImpl implements SettingCacheService {
 
     @Override
     public SettingCache loadDecrypted() {
-        SettingCache cache = load();
+        return snapshot.toSettingCache();
+    }
+
+    private static SettingCache decrypt(SettingCache cache) {
         if (cache.getPassword() != null && !cache.getPassword().isEmpty()) {
             cache.setPassword(CryptoUtil.decrypt(cache.getPassword()));
         }
@@ -0,0 +1,143 @@
+package org.mengsor.web_local_api;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author mengsor
+ * @date 2026/10/17
+ * Compares /query.api on the Tomcat platform-thread pool with the virtual-thread mode under the same load:
+ * a small worker pool, many concurrent clients and a file-backed stub, so request threads block on IO.
+ * Not part of the normal build; run with {@code mvn test -Dtest=StubThreadingBenchmarkTest -Dbenchmark=true}.
+ * The results are logged at INFO.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StubThreadingBenchmarkTest {
+
+    private static final int TOMCAT_THREADS = 16;
+    private static final int CONCURRENCY = 256;
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int REQUESTS = 20_000;
+    private static final int BODY_BYTES = 256 * 1024;
+
+    @Test
+    void compareThreadModes() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        log.info("{}", String.format("%-10s %12s %10s %10s %10s", "mode", "req/s", "p50 ms", "p99 ms", "max ms"));
+        log.info("{}", platform);
+        log.info("{}", virtual);
+
+        assertEquals(REQUESTS, platform.ok());
+        assertEquals(REQUESTS, virtual.ok());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        Path home = Files.createTempDirectory("stub-benchmark");
+        Files.createDirectories(home.resolve("config"));
+        Files.createDirectories(home.resolve("cache"));
+        Files.createDirectories(home.resolve("files"));
+        Files.write(home.resolve("files/body.json"), new byte[BODY_BYTES]);
+        Files.writeString(home.resolve("cache/api-config-cache.yml"), """
+                - id: 1
+                  name: bench
+                  url: bench/{id}
+                  method: GET
+                  protocol: REST
+                  statusCode: 200
+                  bodyFile: files/body.json
+                """);
+
+        // command-line arguments, so they win over application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WebLocalApiApplication.class)
+                .run("--server.port=0",
+                        "--skyvva.home=" + home,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--query.api.virtual-threads.enabled=" + virtualThreads,
+                        "--logging.level.root=WARN",
+                        "--logging.level." + StubThreadingBenchmarkTest.class.getName() + "=INFO")) {
+
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            URI uri = URI.create("http://localhost:" + port + "/query.api/bench/1");
+
+            load(client, uri, WARMUP_REQUESTS);
+            return load(client, uri, REQUESTS).named(virtualThreads ? "virtual" : "platform");
+        } finally {
+            deleteQuietly(home);
+        }
+    }
+
+    private Result load(HttpClient client, URI uri, int requests) throws InterruptedException {
+        Semaphore permits = new Semaphore(CONCURRENCY);
+        AtomicInteger ok = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            permits.acquire();
+            long sent = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies.add(System.nanoTime() - sent);
+                        if (error == null && response.statusCode() == 200) ok.incrementAndGet();
+                        permits.release();
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result("", ok.get(), requests * 1e9 / elapsed,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.get(sorted.size() - 1) / 1e6);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.round(p * (sorted.size() - 1)))) / 1e6;
+    }
+
+    private static void deleteQuietly(Path root) {
+        try (var paths = Files.walk(root)) {
+            paths.sorted(Collections.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException ignored) {
+            // temp directory, left for the OS
+        }
+    }
+
+    private record Result(String mode, int ok, double throughput, double p50, double p99, double max) {
+
+        Result named(String name) {
+            return new Result(name, ok, throughput, p50, p99, max);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %12.0f %10.1f %10.1f %10.1f", mode, throughput, p50, p99, max);
+        }
+    }
+}
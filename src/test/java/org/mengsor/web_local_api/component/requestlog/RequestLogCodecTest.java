@@ -0,0 +1,134 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import org.junit.jupiter.api.Test;
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.enums.MatchStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestLogCodecTest {
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        RequestLog log = sample("1");
+        log.setHeaderDiffs(List.of("Content-Type: expected application/json"));
+        log.setStubMethod("POST");
+        log.setStubUrl("/query.api/v1/orders");
+
+        assertEquals(log, read(write(log)));
+    }
+
+    @Test
+    void roundTripsNullsAndLargeBodies() throws IOException {
+        RequestLog log = new RequestLog();
+        log.setRequestBody("x".repeat(100_000));
+
+        RequestLog read = read(write(log));
+        assertEquals(log, read);
+        assertNull(read.getHeaders());
+        assertNull(read.getMatchStatus());
+    }
+
+    @Test
+    void readsVersionOneRecords() throws IOException {
+        RequestLog log = sample("1");
+
+        RequestLog read = read(writeVersionOne(log));
+        assertEquals(log, read);
+        assertNull(read.getStubUrl());
+        assertNull(read.getHeaderDiffs());
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedRecords() throws IOException {
+        byte[] record = write(sample("1"));
+
+        byte[] unknown = record.clone();
+        unknown[0] = 9;
+        assertThrows(IOException.class, () -> read(unknown));
+        assertThrows(EOFException.class, () -> read(Arrays.copyOf(record, record.length - 3)));
+    }
+
+    static RequestLog sample(String id) {
+        RequestLog log = new RequestLog();
+        log.setId(id);
+        log.setEpochMillis(1_700_000_000_000L);
+        log.setTimestamp("2026-10-17 10:00:00");
+        log.setUrl("/query.api/v1/orders");
+        log.setMethod("POST");
+        log.setClientIp("127.0.0.1");
+        log.setApiName("orders");
+        log.setRequestBody("{\"item\":\"böök\"}");
+        log.setResponseBody("{\"id\":" + id + "}");
+        log.setExpectedRequestBody("{\"item\":\"book\"}");
+        log.setNonMatchReport("$.item: expected book");
+        log.setMatchStatus(MatchStatus.UNMATCHED);
+        log.setStatus(400);
+        log.setStatusCode(400);
+        log.setDuration(12);
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", "application/json");
+        headers.put("X-Empty", null);
+        log.setHeaders(headers);
+        return log;
+    }
+
+    static byte[] write(RequestLog log) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RequestLogCodec.write(new DataOutputStream(bytes), log);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a record the way version 1 did: everything up to the headers.
+     */
+    static byte[] writeVersionOne(RequestLog log) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(1);
+        out.writeLong(log.getEpochMillis());
+        for (String value : List.of(log.getId(), log.getTimestamp(), log.getUrl(), log.getMethod(),
+                log.getClientIp(), log.getApiName(), log.getRequestBody(), log.getResponseBody(),
+                log.getExpectedRequestBody(), log.getNonMatchReport())) {
+            writeString(out, value);
+        }
+        out.writeByte(log.getMatchStatus().ordinal());
+        out.writeInt(log.getStatus());
+        out.writeInt(log.getStatusCode());
+        out.writeLong(log.getDuration());
+        out.writeInt(log.getHeaders().size());
+        for (Map.Entry<String, String> header : log.getHeaders().entrySet()) {
+            writeString(out, header.getKey());
+            writeString(out, header.getValue());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static RequestLog read(byte[] record) throws IOException {
+        return RequestLogCodec.read(new DataInputStream(new ByteArrayInputStream(record)));
+    }
+}
@@ -0,0 +1,143 @@
+package org.mengsor.web_local_api.component.requestlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mengsor.web_local_api.model.RequestLog;
+import org.mengsor.web_local_api.model.enums.FsyncPolicy;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestLogStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysWhatWasAppendedAfterRestart() {
+        List<RequestLog> logs = logs(1, 5);
+        try (RequestLogStore store = store(DataSize.ofMegabytes(8))) {
+            store.append(logs.subList(0, 3));
+            store.append(logs.subList(3, 5));
+        }
+
+        try (RequestLogStore store = store(DataSize.ofMegabytes(8))) {
+            assertEquals(logs, store.replay(100));
+            assertEquals(logs.subList(2, 5), store.replay(3));
+        }
+    }
+
+    @Test
+    void rotatesSegmentsAndReplaysTheNewestAcrossThem() throws IOException {
+        List<RequestLog> logs = logs(1, 40);
+        try (RequestLogStore store = store(DataSize.ofBytes(2048))) {
+            for (RequestLog log : logs) {
+                store.append(List.of(log));
+            }
+        }
+
+        assertTrue(segments().size() > 2, "expected several segments, got " + segments());
+        try (RequestLogStore store = store(DataSize.ofBytes(2048))) {
+            assertEquals(logs, store.replay(100));
+            assertEquals(logs.subList(15, 40), store.replay(25));
+        }
+    }
+
+    @Test
+    void dropsOnlyAPartlyWrittenLastRecord() throws IOException {
+        List<RequestLog> logs = logs(1, 4);
+        try (RequestLogStore store = store(DataSize.ofMegabytes(8))) {
+            store.append(logs);
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        try (RequestLogStore store = store(DataSize.ofMegabytes(8))) {
+            assertEquals(logs.subList(0, 3), store.replay(100));
+            // the torn segment is never appended to
+            store.append(logs(5, 5));
+            assertEquals(logs(5, 5), store.replay(1));
+        }
+    }
+
+    @Test
+    void unreadableRecordOnlyEndsItsOwnSegment() throws IOException {
+        List<RequestLog> logs = logs(1, 6);
+        try (RequestLogStore store = store(DataSize.ofMegabytes(8))) {
+            store.append(logs.subList(0, 3));
+        }
+        // valid checksum, but a version this codec does not know
+        byte[] unknown = RequestLogCodecTest.write(logs.get(3));
+        unknown[0] = 9;
+        writeSegment(2, RequestLogCodecTest.write(logs.get(3)), unknown, RequestLogCodecTest.write(logs.get(4)));
+        try (RequestLogStore store = store(DataSize.ofMegabytes(8))) {
+            store.append(logs.subList(5, 6));
+        }
+
+        try (RequestLogStore store = store(DataSize.ofMegabytes(8))) {
+            assertEquals(List.of(logs.get(0), logs.get(1), logs.get(2), logs.get(3), logs.get(5)),
+                    store.replay(100));
+        }
+    }
+
+    @Test
+    void replaysVersionOneSegments() throws IOException {
+        List<RequestLog> logs = logs(1, 3);
+        writeSegment(1, RequestLogCodecTest.writeVersionOne(logs.get(0)),
+                RequestLogCodecTest.writeVersionOne(logs.get(1)));
+
+        try (RequestLogStore store = store(DataSize.ofMegabytes(8))) {
+            store.append(logs.subList(2, 3));
+            assertEquals(logs, store.replay(100));
+        }
+    }
+
+    private RequestLogStore store(DataSize segmentSize) {
+        return new RequestLogStore(directory.toString(), segmentSize, FsyncPolicy.NEVER, Duration.ofSeconds(1),
+                16, Duration.ofHours(24));
+    }
+
+    private static List<RequestLog> logs(int from, int to) {
+        List<RequestLog> logs = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            logs.add(RequestLogCodecTest.sample(String.valueOf(i)));
+        }
+        return logs;
+    }
+
+    private void writeSegment(long index, byte[]... payloads) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        CRC32 crc = new CRC32();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+            out.writeInt(payload.length);
+            out.writeInt((int) crc.getValue());
+            out.write(payload);
+        }
+        Files.write(directory.resolve(String.format("segment-%012d.log", index)), bytes.toByteArray());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.mengsor.web_local_api.component.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteTrieTest {
+
+    @Test
+    void literalWinsOverVariableOverWildcardOverRemainder() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "users/**", "remainder");
+        trie.add("GET", "users/*", "wildcard");
+        trie.add("GET", "users/{id}", "variable");
+        trie.add("GET", "users/me", "literal");
+        trie.freeze();
+
+        assertEquals("literal", trie.match("GET", "users/me").value());
+        assertEquals("variable", trie.match("GET", "users/42").value());
+        assertEquals(Map.of("id", "42"), trie.match("GET", "users/42").pathVariables());
+        assertEquals("remainder", trie.match("GET", "users/42/orders").value());
+    }
+
+    @Test
+    void wildcardWinsOverRemainder() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "files/**", "remainder");
+        trie.add("GET", "files/*", "wildcard");
+        trie.freeze();
+
+        assertEquals("wildcard", trie.match("GET", "files/a").value());
+        assertEquals("remainder", trie.match("GET", "files/a/b").value());
+    }
+
+    @Test
+    void backtracksFromLiteralToVariable() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "orders/open/summary", "literal");
+        trie.add("GET", "orders/{id}/items", "variable");
+        trie.freeze();
+
+        RouteMatch<String> match = trie.match("GET", "orders/open/items");
+        assertEquals("variable", match.value());
+        assertEquals(Map.of("id", "open"), match.pathVariables());
+    }
+
+    @Test
+    void backtracksToRemainderOfAnOuterNode() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "api/{version}/users", "users");
+        trie.add("GET", "api/**", "fallback");
+        trie.freeze();
+
+        assertEquals("users", trie.match("GET", "api/v1/users").value());
+        assertEquals("fallback", trie.match("GET", "api/v1/orders").value());
+    }
+
+    @Test
+    void remainderMatchesZeroSegments() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "static/**", "static");
+        trie.freeze();
+
+        assertEquals("static", trie.match("GET", "static").value());
+        assertEquals("static", trie.match("GET", "static/").value());
+        assertEquals("static", trie.match("GET", "static/css/site.css").value());
+        assertNull(trie.match("GET", "other"));
+    }
+
+    @Test
+    void matchesLiteralsCaseInsensitivelyAndDecodesVariables() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("get", "Users/{name}", "user");
+        trie.freeze();
+
+        RouteMatch<String> match = trie.match("GET", "users/John%20Doe");
+        assertEquals("user", match.value());
+        assertEquals(Map.of("name", "John Doe"), match.pathVariables());
+        assertNull(trie.match("POST", "users/john"));
+        assertNull(trie.match("GET", "users"));
+    }
+
+    @Test
+    void keepsTheFirstOfEquivalentRoutes() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        assertTrue(trie.add("GET", "items/{id}", "first"));
+        assertFalse(trie.add("GET", "items/{key}", "second"));
+        trie.freeze();
+
+        assertEquals(1, trie.size());
+        assertEquals("first", trie.match("GET", "items/1").value());
+    }
+
+    @Test
+    void rejectsRemainderBeforeTheLastSegmentAndChangesAfterFreeze() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        assertThrows(IllegalArgumentException.class, () -> trie.add("GET", "a/**/b", "x"));
+
+        trie.freeze();
+        assertThrows(IllegalStateException.class, () -> trie.add("GET", "a", "x"));
+    }
+}